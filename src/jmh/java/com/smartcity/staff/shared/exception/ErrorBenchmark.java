@@ -0,0 +1,46 @@
+package com.smartcity.staff.shared.exception;
+
+import com.smartcity.models.Error;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorBenchmark {
+    private CustomExceptionHandler exceptionHandler;
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        exceptionHandler = new CustomExceptionHandler(10);
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/staff/me"));
+    }
+
+    @Benchmark
+    public Error createBaseError() {
+        return exceptionHandler.createBaseError(exchange, HttpStatus.NOT_FOUND);
+    }
+
+    @Benchmark
+    public ResponseEntity<Error> notFound() {
+        return exceptionHandler.handleDomainException(new ResourceNotFoundException("Staff not found"), exchange);
+    }
+}
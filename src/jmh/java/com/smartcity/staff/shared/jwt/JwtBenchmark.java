@@ -0,0 +1,69 @@
+package com.smartcity.staff.shared.jwt;
+
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    @Param({"0", "10000"})
+    private long cacheSize;
+
+    private JwtService jwtService;
+    private JwtServerAuthenticationConverter converter;
+    private JwtAuthenticationManager authenticationManager;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 3600, cacheSize);
+        converter = new JwtServerAuthenticationConverter(jwtService, new OperationTimer(new SimpleMeterRegistry()));
+        authenticationManager = new JwtAuthenticationManager(jwtService);
+        token = jwtService.generateToken(User.withUsername("0b6f2c1e-6d1a-4a8e-9a51-3c2b1f0e9d7a")
+                .password("")
+                .authorities("STAFF", "ADMIN")
+                .build());
+    }
+
+    @Benchmark
+    public void extractClaims(Blackhole blackhole) {
+        var claims = jwtService.verify(token);
+        blackhole.consume(jwtService.extractUsername(claims));
+        blackhole.consume(jwtService.extractRoles(claims));
+    }
+
+    @Benchmark
+    public Authentication authenticationChain() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/staff/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        return converter.convert(exchange)
+                .flatMap(authenticationManager::authenticate)
+                .block();
+    }
+}
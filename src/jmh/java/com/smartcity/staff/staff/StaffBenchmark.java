@@ -0,0 +1,95 @@
+package com.smartcity.staff.staff;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.models.City;
+import com.smartcity.models.Staff;
+import com.smartcity.models.Village;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaffBenchmark {
+    private static final int LOCATIONS = 50;
+    private static final int ROWS = 1000;
+
+    private StaffReadRepository staffReadRepository;
+    private StaffEntity staffEntity;
+    private Village village;
+    private City city;
+    private List<StaffEntity> rows;
+    private List<String> cityPayloads;
+    private List<String> villagePayloads;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        staffReadRepository = new StaffReadRepository(null, null, objectMapper);
+        staffEntity = entity(0);
+        village = new Village();
+        village.setName("village-0");
+        city = new City();
+        city.setName("city-0");
+        rows = IntStream.range(0, ROWS).mapToObj(StaffBenchmark::entity).toList();
+        cityPayloads = new ArrayList<>();
+        villagePayloads = new ArrayList<>();
+        for (int i = 0; i < LOCATIONS; i++) {
+            City replicaCity = new City();
+            replicaCity.setName("city-" + i);
+            cityPayloads.add(objectMapper.writeValueAsString(replicaCity));
+            Village replicaVillage = new Village();
+            replicaVillage.setName("village-" + i);
+            villagePayloads.add(objectMapper.writeValueAsString(replicaVillage));
+        }
+    }
+
+    @Benchmark
+    public Staff toModel() {
+        return StaffMapper.INSTANCE.toModel(staffEntity, village, city);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Staff> replicaListing() {
+        List<Staff> staff = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            int location = i % LOCATIONS;
+            staff.add(staffReadRepository.toRow(rows.get(i), cityPayloads.get(location), 1, villagePayloads.get(location), 1).toModel());
+        }
+        return staff;
+    }
+
+    private static StaffEntity entity(int i) {
+        return StaffEntity.builder()
+                .id(UUID.nameUUIDFromBytes(("staff-" + i).getBytes()).toString())
+                .name("Staff " + i)
+                .email("staff" + i + "@smartcity.local")
+                .department("Sanitation")
+                .cityId("c" + (i % LOCATIONS))
+                .villageId("v" + (i % LOCATIONS))
+                .createdAt(Instant.EPOCH)
+                .updatedAt(Instant.EPOCH)
+                .etag(1L)
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.smartcity.staff.staff;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.smartcity.models.City;
+import com.smartcity.models.Staff;
+import com.smartcity.models.Village;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Per-record encode and decode cost of a staff listing and a location-service city batch, as JSON and
+ * as Smile. Payload bytes per record are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaffCodecBenchmark {
+    private static final int ROWS = 1000;
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private JavaType staffListType;
+    private JavaType cityListType;
+    private List<Staff> staff;
+    private byte[] encodedStaff;
+    private byte[] encodedCities;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = format.equals("smile") ? builder.factory(new SmileFactory()).build() : builder.build();
+        staffListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Staff.class);
+        cityListType = objectMapper.getTypeFactory().constructCollectionType(List.class, City.class);
+        staff = IntStream.range(0, ROWS).mapToObj(StaffCodecBenchmark::staff).toList();
+        encodedStaff = objectMapper.writeValueAsBytes(staff);
+        encodedCities = objectMapper.writeValueAsBytes(IntStream.range(0, ROWS).mapToObj(i -> city("city-" + i)).toList());
+        System.out.printf("%n%s: %d bytes per staff, %d bytes per city%n", format, encodedStaff.length / ROWS, encodedCities.length / ROWS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public byte[] encodeStaff() throws Exception {
+        return objectMapper.writeValueAsBytes(staff);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Staff> decodeStaff() throws Exception {
+        return objectMapper.readValue(encodedStaff, staffListType);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<City> decodeCities() throws Exception {
+        return objectMapper.readValue(encodedCities, cityListType);
+    }
+
+    private static Staff staff(int i) {
+        Village village = new Village();
+        village.setName("village-" + (i % 50));
+        StaffEntity entity = StaffEntity.builder()
+                .id(UUID.nameUUIDFromBytes(("staff-" + i).getBytes()).toString())
+                .name("Staff " + i)
+                .email("staff" + i + "@smartcity.local")
+                .department("Sanitation")
+                .createdAt(Instant.EPOCH)
+                .updatedAt(Instant.EPOCH)
+                .etag(1L)
+                .build();
+        return StaffMapper.INSTANCE.toModel(entity, village, city("city-" + (i % 50)));
+    }
+
+    private static City city(String name) {
+        City city = new City();
+        city.setName(name);
+        return city;
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartcity.staff.staff;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaffSearchBenchmark {
+    private static final List<String> FIRST_NAMES = List.of("James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah");
+    private static final List<String> LAST_NAMES = List.of("Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore");
+    private static final List<String> DEPARTMENTS = List.of("Sanitation", "Health", "Education", "Water", "Roads", "Revenue");
+
+    @Param({"100000"})
+    public int staff;
+
+    @Param({"j", "jo", "john sm", "staff4242@", "sanitation"})
+    public String query;
+
+    private StaffSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StaffRepository staffRepository = mock(StaffRepository.class);
+        when(staffRepository.findAll()).thenReturn(Flux.fromStream(IntStream.range(0, staff).mapToObj(StaffSearchBenchmark::entity)));
+        long before = usedHeap();
+        index = new StaffSearchIndex(staffRepository, new SimpleMeterRegistry(), 50);
+        index.rebuild().block();
+        System.out.printf("%nStaff search index for %d staff retains ~%d bytes%n", staff, usedHeap() - before);
+    }
+
+    @Benchmark
+    public List<StaffSearchHit> search() {
+        return index.search(query, 10);
+    }
+
+    private static StaffEntity entity(int i) {
+        String first = FIRST_NAMES.get(i % FIRST_NAMES.size());
+        String last = LAST_NAMES.get((i / FIRST_NAMES.size()) % LAST_NAMES.size());
+        return StaffEntity.builder()
+                .id(UUID.nameUUIDFromBytes(("staff-" + i).getBytes()).toString())
+                .name(first + " " + last)
+                .email("staff" + i + "@smartcity.local")
+                .department(DEPARTMENTS.get(i % DEPARTMENTS.size()))
+                .build();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartcity.staff.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smartcity.staff.StaffApplication;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Boots the service against in-memory H2 and a stub location-service, seeds staff through the API,
+ * drives the configured workload and writes a JSON report.
+ * <p>
+ * {@code ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="rps=500 duration=PT2M label=$(git rev-parse --short HEAD)"}
+ */
+public class LoadTest {
+    private static final Duration REPLICA_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        LoadTestTokens tokens = new LoadTestTokens();
+        try (StubLocationService locationService = new StubLocationService(objectMapper, settings);
+             ConfigurableApplicationContext application = start(locationService, tokens)) {
+            awaitReplica(application.getBean(MeterRegistry.class));
+            String baseUrl = "http://localhost:" + application.getEnvironment().getRequiredProperty("local.server.port");
+            StaffWorkload workload = new StaffWorkload(baseUrl, settings, tokens, locationService.cityIds(), locationService.villageIds());
+            workload.seed().block();
+            LoadTestReport report = workload.run().block();
+            Path output = Path.of(settings.output());
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            objectMapper.writeValue(output.toFile(), report);
+            System.out.println(objectMapper.writeValueAsString(report));
+        }
+    }
+
+    private static ConfigurableApplicationContext start(StubLocationService locationService, LoadTestTokens tokens) {
+        return new SpringApplicationBuilder(StaffApplication.class)
+                .profiles("loadtest")
+                .run("--spring.cloud.config.enabled=false",
+                        "--jwt.secret-key=" + tokens.secret(),
+                        "--smart_city.services.location-service.url=" + locationService.url());
+    }
+
+    private static void awaitReplica(MeterRegistry meterRegistry) {
+        Flux.interval(Duration.ofMillis(200))
+                .filter(tick -> {
+                    Collection<Gauge> lags = meterRegistry.find("location.replica.lag").gauges();
+                    return !lags.isEmpty() && lags.stream().noneMatch(gauge -> Double.isNaN(gauge.value()));
+                })
+                .next()
+                .timeout(REPLICA_TIMEOUT)
+                .block();
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartcity.staff.loadtest;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+record LoadTestReport(String label, Instant startedAt, Settings settings, double measuredSeconds,
+                      long requests, long errors, double throughputPerSecond, Map<String, OperationResult> operations) {
+
+    record Settings(int targetRps, double warmupSeconds, double durationSeconds, int maxInFlight, int seedStaff,
+                    Map<String, Integer> mix, double stubLatencyMillis, double stubJitterMillis, double stubErrorRate) {
+
+        static Settings of(LoadTestSettings settings) {
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            settings.mix().forEach((operation, weight) -> mix.put(operation.key(), weight));
+            return new Settings(settings.rps(), settings.warmup().toMillis() / 1000.0, settings.duration().toMillis() / 1000.0,
+                    settings.maxInFlight(), settings.seedStaff(), mix,
+                    settings.stubLatency().toNanos() / 1_000_000.0, settings.stubJitter().toNanos() / 1_000_000.0,
+                    settings.stubErrorRate());
+        }
+    }
+
+    record OperationResult(long requests, long errors, Map<String, Long> errorsByReason, double throughputPerSecond,
+                           Latency latencyMillis) {
+    }
+
+    record Latency(double p50, double p99, double p999, double max, double mean) {
+    }
+}
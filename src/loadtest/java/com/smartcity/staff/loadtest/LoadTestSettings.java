@@ -0,0 +1,57 @@
+package com.smartcity.staff.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+record LoadTestSettings(int rps, Duration warmup, Duration duration, int maxInFlight, Duration requestTimeout,
+                        int seedStaff, int cities, int villages, Map<Operation, Integer> mix,
+                        Duration stubLatency, Duration stubJitter, double stubErrorRate,
+                        String label, String output) {
+
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LoadTestSettings settings = new LoadTestSettings(
+                Integer.parseInt(values.getOrDefault("rps", "200")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Integer.parseInt(values.getOrDefault("maxInFlight", "1024")),
+                Duration.parse(values.getOrDefault("timeout", "PT5S")),
+                Integer.parseInt(values.getOrDefault("seedStaff", "1000")),
+                Integer.parseInt(values.getOrDefault("cities", "50")),
+                Integer.parseInt(values.getOrDefault("villages", "200")),
+                parseMix(values.getOrDefault("mix", "list:40,me:40,update:15,create:5")),
+                Duration.parse(values.getOrDefault("stubLatency", "PT0.02S")),
+                Duration.parse(values.getOrDefault("stubJitter", "PT0.01S")),
+                Double.parseDouble(values.getOrDefault("stubErrorRate", "0")),
+                values.getOrDefault("label", "local"),
+                values.getOrDefault("output", "target/loadtest-result.json"));
+        if (settings.seedStaff() < 1 && (settings.mix().containsKey(Operation.ME) || settings.mix().containsKey(Operation.UPDATE))) {
+            throw new IllegalArgumentException("The me and update operations need seedStaff > 0");
+        }
+        return settings;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix has no operations: " + mix);
+        }
+        return weights;
+    }
+}
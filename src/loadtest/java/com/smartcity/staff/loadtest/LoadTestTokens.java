@@ -0,0 +1,44 @@
+package com.smartcity.staff.loadtest;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Signs tokens the same way the service does, with a secret generated per run and handed to the
+ * application as {@code jwt.secret-key}.
+ */
+class LoadTestTokens {
+    private static final long VALIDITY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final String secret;
+    private final SecretKey signingKey;
+
+    LoadTestTokens() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        this.secret = Encoders.BASE64.encode(bytes);
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
+    String secret() {
+        return secret;
+    }
+
+    String issue(String subject, String role) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(subject)
+                .claim("roles", List.of(role))
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + VALIDITY_MILLIS))
+                .signWith(signingKey, Jwts.SIG.HS256)
+                .compact();
+    }
+}
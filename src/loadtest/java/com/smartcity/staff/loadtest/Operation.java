@@ -0,0 +1,27 @@
+package com.smartcity.staff.loadtest;
+
+import java.util.Arrays;
+
+enum Operation {
+    LIST("list"),
+    ME("me"),
+    UPDATE("update"),
+    CREATE("create");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Operation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + key));
+    }
+}
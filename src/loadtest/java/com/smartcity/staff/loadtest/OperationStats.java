@@ -0,0 +1,55 @@
+package com.smartcity.staff.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency is measured from the moment a request was scheduled to be sent, not when it was actually
+ * sent, so a stalled server shows up as latency instead of silently lowering the offered load.
+ */
+class OperationStats {
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void success(long scheduledAtNanos) {
+        record(scheduledAtNanos);
+    }
+
+    void failure(long scheduledAtNanos, String reason) {
+        record(scheduledAtNanos);
+        errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    LoadTestReport.OperationResult result(double seconds) {
+        long count = requests.sum();
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((reason, adder) -> errorCounts.put(reason, adder.sum()));
+        long errorTotal = errorCounts.values().stream().mapToLong(Long::longValue).sum();
+        return new LoadTestReport.OperationResult(count, errorTotal, errorCounts, count / seconds,
+                new LoadTestReport.Latency(
+                        millis(latencyMicros.getValueAtPercentile(50)),
+                        millis(latencyMicros.getValueAtPercentile(99)),
+                        millis(latencyMicros.getValueAtPercentile(99.9)),
+                        millis(latencyMicros.getMaxValue()),
+                        latencyMicros.getMean() / 1000.0));
+    }
+
+    private void record(long scheduledAtNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAtNanos);
+        latencyMicros.recordValue(Math.min(Math.max(micros, 0), MAX_TRACKABLE_MICROS));
+        requests.increment();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.smartcity.staff.loadtest;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives an open-loop mix of staff reads and writes at a fixed rate: requests are scheduled on a
+ * timeline derived from the target RPS and sent whether or not earlier ones have answered, up to
+ * {@code maxInFlight}.
+ */
+class StaffWorkload {
+    private static final Duration TICK = Duration.ofMillis(1);
+    private static final List<String> DEPARTMENTS = List.of("HEALTH", "EDUCATION", "WATER", "ROADS", "REVENUE");
+    private static final int SEED_CONCURRENCY = 32;
+    private static final int PAGE_SIZE = 50;
+
+    private final WebClient webClient;
+    private final LoadTestSettings settings;
+    private final LoadTestTokens tokens;
+    private final String adminToken;
+    private final String systemToken;
+    private final List<String> cityIds;
+    private final List<String> villageIds;
+    private final List<String> staffIds = new ArrayList<>();
+    private final Map<String, String> staffTokens = new LinkedHashMap<>();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    StaffWorkload(String baseUrl, LoadTestSettings settings, LoadTestTokens tokens, List<String> cityIds, List<String> villageIds) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(settings.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        this.settings = settings;
+        this.tokens = tokens;
+        this.adminToken = tokens.issue("loadtest-admin", "ADMIN");
+        this.systemToken = tokens.issue("loadtest-system", "SYSTEM");
+        this.cityIds = cityIds;
+        this.villageIds = villageIds;
+        this.operations = settings.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    Mono<Void> seed() {
+        return Flux.range(0, settings.seedStaff())
+                .flatMap(i -> {
+                    String id = UUID.randomUUID().toString();
+                    return create(id).map(status -> {
+                        if (!status.is2xxSuccessful()) {
+                            throw new IllegalStateException("Seeding staff failed with " + status);
+                        }
+                        return id;
+                    });
+                }, SEED_CONCURRENCY)
+                .doOnNext(id -> {
+                    staffIds.add(id);
+                    staffTokens.put(id, tokens.issue(id, "STAFF"));
+                })
+                .then();
+    }
+
+    Mono<LoadTestReport> run() {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        double intervalNanos = 1_000_000_000.0 / settings.rps();
+        AtomicLong scheduled = new AtomicLong();
+        return Flux.interval(TICK)
+                .onBackpressureBuffer()
+                .takeWhile(tick -> System.nanoTime() < end)
+                .concatMapIterable(tick -> {
+                    long due = (long) ((System.nanoTime() - start) / intervalNanos);
+                    List<Long> sendAt = new ArrayList<>();
+                    for (long next = scheduled.get(); next < due; next = scheduled.incrementAndGet()) {
+                        sendAt.add(start + (long) (next * intervalNanos));
+                    }
+                    return sendAt;
+                })
+                .flatMap(scheduledAt -> execute(nextOperation(), scheduledAt, scheduledAt >= measureFrom), settings.maxInFlight())
+                .then(Mono.fromSupplier(() -> report(startedAt)));
+    }
+
+    private Mono<Void> execute(Operation operation, long scheduledAt, boolean measured) {
+        OperationStats operationStats = stats.get(operation);
+        return send(operation)
+                .timeout(settings.requestTimeout())
+                .doOnNext(status -> {
+                    if (!measured) {
+                        return;
+                    }
+                    if (status.is2xxSuccessful() || status.value() == 304) {
+                        operationStats.success(scheduledAt);
+                    } else {
+                        operationStats.failure(scheduledAt, "status:" + status.value());
+                    }
+                })
+                .doOnError(ex -> {
+                    if (measured) {
+                        operationStats.failure(scheduledAt, ex.getClass().getSimpleName());
+                    }
+                })
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+
+    private Mono<HttpStatusCode> send(Operation operation) {
+        return switch (operation) {
+            case LIST -> exchange(webClient.get()
+                    .uri(uriBuilder -> uriBuilder.path("/staff")
+                            .queryParam("limit", PAGE_SIZE)
+                            .queryParam("department", pick(DEPARTMENTS))
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .headers(headers -> headers.setBearerAuth(adminToken)));
+            case ME -> exchange(webClient.get()
+                    .uri("/staff/me")
+                    .headers(headers -> headers.setBearerAuth(staffTokens.get(pick(staffIds)))));
+            case UPDATE -> exchange(webClient.patch()
+                    .uri("/staff")
+                    .headers(headers -> headers.setBearerAuth(staffTokens.get(pick(staffIds))))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("name", "staff-" + ThreadLocalRandom.current().nextInt(1_000_000))));
+            case CREATE -> create(UUID.randomUUID().toString());
+        };
+    }
+
+    private Mono<HttpStatusCode> create(String id) {
+        Map<String, Object> staffRequest = new LinkedHashMap<>();
+        staffRequest.put("id", id);
+        staffRequest.put("name", "staff-" + id.substring(0, 8));
+        staffRequest.put("email", id + "@loadtest.local");
+        staffRequest.put("department", pick(DEPARTMENTS));
+        staffRequest.put("cityId", pick(cityIds));
+        staffRequest.put("villageId", pick(villageIds));
+        return exchange(webClient.post()
+                .uri("/staff")
+                .headers(headers -> headers.setBearerAuth(systemToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(staffRequest));
+    }
+
+    private static Mono<HttpStatusCode> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()));
+    }
+
+    private Operation nextOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private LoadTestReport report(Instant startedAt) {
+        double seconds = settings.duration().toNanos() / 1_000_000_000.0;
+        Map<String, LoadTestReport.OperationResult> results = new LinkedHashMap<>();
+        long requests = 0;
+        long errors = 0;
+        for (Operation operation : operations) {
+            LoadTestReport.OperationResult result = stats.get(operation).result(seconds);
+            results.put(operation.key(), result);
+            requests += result.requests();
+            errors += result.errors();
+        }
+        return new LoadTestReport(settings.label(), startedAt, LoadTestReport.Settings.of(settings), seconds,
+                requests, errors, requests / seconds, results);
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
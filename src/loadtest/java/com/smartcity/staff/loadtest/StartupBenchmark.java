@@ -0,0 +1,222 @@
+package com.smartcity.staff.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Starts the packaged service in a fresh JVM per run, once as a plain jar that migrates at startup and
+ * once in the fast-start mode (AOT, CDS archive, migrations as a separate step), each against its own
+ * file-backed H2 database. Records the time from process start to the first HTTP response and the
+ * resident set size at that point.
+ * <p>
+ * {@code ./mvnw -Pfast-start package -DskipTests} then
+ * {@code ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.smartcity.staff.loadtest.StartupBenchmark -Dloadtest.args="runs=5"}
+ */
+public class StartupBenchmark {
+    private static final String MAIN_CLASS = "com.smartcity.staff.StaffApplication";
+    private static final String MIGRATIONS_CLASS = "com.smartcity.staff.StaffMigrations";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = parse(args);
+        Path appDirectory = Path.of(settings.getOrDefault("app", "target/fast-start"));
+        int runs = Integer.parseInt(settings.getOrDefault("runs", "3"));
+        Path output = Path.of(settings.getOrDefault("output", "target/startup-result.json"));
+        Path jar = findJar(appDirectory);
+        Path archive = appDirectory.resolve("application.jsa");
+        String classpath = jar + File.pathSeparator + embeddedDatabaseJars();
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+
+        Instant startedAt = Instant.now();
+        Map<String, List<Sample>> samples = new LinkedHashMap<>();
+        for (int run = 0; run < runs; run++) {
+            samples.computeIfAbsent("default", mode -> new ArrayList<>()).add(runDefault(classpath));
+            samples.computeIfAbsent("fast-start", mode -> new ArrayList<>()).add(runFastStart(classpath, archive));
+        }
+
+        Map<String, ModeResult> modes = new LinkedHashMap<>();
+        samples.forEach((mode, modeSamples) -> modes.put(mode, ModeResult.of(modeSamples)));
+        Report report = new Report(settings.getOrDefault("label", "local"), startedAt, runs, modes);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        objectMapper.writeValue(output.toFile(), report);
+        System.out.println(objectMapper.writeValueAsString(report));
+    }
+
+    private static Sample runDefault(String classpath) throws Exception {
+        Path database = Files.createTempDirectory("staff-startup").resolve("staff");
+        List<String> command = new ArrayList<>(List.of(java(), "-cp", classpath, MAIN_CLASS,
+                "--spring.liquibase.url=" + jdbcUrl(database), "--spring.liquibase.user=sa", "--spring.liquibase.password="));
+        return measure(command, database, 0);
+    }
+
+    private static Sample runFastStart(String classpath, Path archive) throws Exception {
+        Path database = Files.createTempDirectory("staff-startup").resolve("staff");
+        long migrationStartedAt = System.nanoTime();
+        Process migrations = new ProcessBuilder(java(), "-cp", classpath, MIGRATIONS_CLASS,
+                "--spring.liquibase.url=" + jdbcUrl(database), "--spring.liquibase.user=sa", "--spring.liquibase.password=")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (migrations.waitFor() != 0) {
+            throw new IllegalStateException("Migrations failed with exit code " + migrations.exitValue());
+        }
+        long migrationNanos = System.nanoTime() - migrationStartedAt;
+        List<String> command = new ArrayList<>(List.of(java(), "-XX:SharedArchiveFile=" + archive,
+                "-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-start", "-cp", classpath, MAIN_CLASS));
+        return measure(command, database, migrationNanos);
+    }
+
+    private static Sample measure(List<String> command, Path database, long migrationNanos) throws Exception {
+        int port = freePort();
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.register-with-eureka=false",
+                "--eureka.client.fetch-registry=false",
+                "--spring.r2dbc.url=r2dbc:h2:file//" + database.toAbsolutePath() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.r2dbc.username=sa",
+                "--spring.r2dbc.password=",
+                "--jwt.secret-key=" + new LoadTestTokens().secret(),
+                "--jwt.token-expiration-seconds=3600",
+                "--smart_city.services.location-service.url=http://localhost:9"));
+        Path log = database.resolveSibling("staff.log");
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            awaitFirstResponse(process, port, log);
+            long firstResponseNanos = System.nanoTime() - startedAt;
+            long residentSet = residentSetKilobytes(process);
+            return new Sample(firstResponseNanos / 1_000_000.0, residentSet < 0 ? -1 : residentSet / 1024.0, migrationNanos / 1_000_000.0);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void awaitFirstResponse(Process process, int port, Path log) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with code " + process.exitValue() + ", see " + log);
+            }
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+        }
+        throw new IllegalStateException("Service did not answer within " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    /**
+     * {@code VmRSS} from {@code /proc}, or -1 where that is not available.
+     */
+    private static long residentSetKilobytes(Process process) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1L);
+    }
+
+    private static Path findJar(Path appDirectory) throws IOException {
+        try (var files = Files.list(appDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No extracted jar in " + appDirectory + ", build with -Pfast-start package first"));
+        }
+    }
+
+    /**
+     * H2 is not packaged with the service, so it is taken from this harness's own classpath.
+     */
+    private static String embeddedDatabaseJars() {
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> {
+                    String name = Path.of(entry).getFileName().toString();
+                    return name.startsWith("h2-") || name.startsWith("r2dbc-h2-");
+                })
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static String jdbcUrl(Path database) {
+        return "jdbc:h2:file:" + database.toAbsolutePath() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+
+    record Sample(double firstResponseMillis, double residentSetMegabytes, double migrationMillis) {
+    }
+
+    record ModeResult(double medianFirstResponseMillis, double medianResidentSetMegabytes, double medianMigrationMillis, List<Sample> samples) {
+
+        static ModeResult of(List<Sample> samples) {
+            return new ModeResult(median(samples, Sample::firstResponseMillis), median(samples, Sample::residentSetMegabytes),
+                    median(samples, Sample::migrationMillis), samples);
+        }
+
+        private static double median(List<Sample> samples, ToDoubleFunction<Sample> metric) {
+            double[] values = samples.stream().mapToDouble(metric).sorted().toArray();
+            return values[values.length / 2];
+        }
+    }
+
+    record Report(String label, Instant startedAt, int runs, Map<String, ModeResult> modes) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.smartcity.staff.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the location-service. Serves a fixed set of cities and villages on the
+ * routes {@code LocationClient} and {@code LocationReplicaSync} call, after a configurable latency,
+ * and fails a configurable share of requests with 503.
+ */
+class StubLocationService implements AutoCloseable {
+    private static final TypeReference<List<String>> ID_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final Map<String, Map<String, Object>> cities;
+    private final Map<String, Map<String, Object>> villages;
+    private final DisposableServer server;
+
+    StubLocationService(ObjectMapper objectMapper, LoadTestSettings settings) {
+        this.objectMapper = objectMapper;
+        this.latency = settings.stubLatency();
+        this.jitter = settings.stubJitter();
+        this.errorRate = settings.stubErrorRate();
+        this.cities = generate("city", settings.cities());
+        this.villages = generate("village", settings.villages());
+        this.server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/cities", (request, response) -> respond(response, cities::values))
+                        .get("/villages", (request, response) -> respond(response, villages::values))
+                        .get("/cities/{id}", (request, response) -> respond(response, () -> cities.get(request.param("id"))))
+                        .get("/villages/{id}", (request, response) -> respond(response, () -> villages.get(request.param("id"))))
+                        .post("/cities/bulk", (request, response) -> bulk(request, response, cities))
+                        .post("/villages/bulk", (request, response) -> bulk(request, response, villages)))
+                .bindNow();
+    }
+
+    String url() {
+        return "http://localhost:" + server.port();
+    }
+
+    List<String> cityIds() {
+        return List.copyOf(cities.keySet());
+    }
+
+    List<String> villageIds() {
+        return List.copyOf(villages.keySet());
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> bulk(HttpServerRequest request, HttpServerResponse response, Map<String, Map<String, Object>> locations) {
+        return request.receive().aggregate().asString()
+                .flatMap(body -> respond(response, () -> readIds(body).stream()
+                        .map(locations::get)
+                        .filter(Objects::nonNull)
+                        .toList()));
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, Supplier<Object> body) {
+        Mono<Void> reply = Mono.defer(() -> {
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send();
+            }
+            Object value = body.get();
+            if (value == null) {
+                return response.status(HttpResponseStatus.NOT_FOUND).send();
+            }
+            return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                    .sendString(Mono.just(toJson(value)))
+                    .then();
+        });
+        return Mono.delay(nextDelay()).then(reply);
+    }
+
+    private Duration nextDelay() {
+        long jitterNanos = jitter.toNanos();
+        return jitterNanos <= 0 ? latency : latency.plusNanos(ThreadLocalRandom.current().nextLong(jitterNanos + 1));
+    }
+
+    private List<String> readIds(String body) {
+        try {
+            return objectMapper.readValue(body, ID_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid bulk request body", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Map<String, Object>> generate(String kind, int count) {
+        Map<String, Map<String, Object>> locations = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String id = UUID.nameUUIDFromBytes((kind + i).getBytes()).toString();
+            Map<String, Object> location = new LinkedHashMap<>();
+            location.put("id", id);
+            location.put("name", kind + "-" + i);
+            locations.put(id, location);
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,38 @@
+package com.smartcity.staff;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Applies the Liquibase changelog and exits, for deployments that run migrations as a separate step
+ * (the {@code fast-start} profile turns them off at application startup). Reads the same
+ * {@code spring.liquibase.*} settings as the application, from arguments, system properties or the
+ * environment:
+ * <p>
+ * {@code SPRING_LIQUIBASE_URL=jdbc:mysql://... java -cp staff.jar com.smartcity.staff.StaffMigrations}
+ */
+@Slf4j
+public final class StaffMigrations {
+    private static final String DEFAULT_CHANGE_LOG = "classpath:/db/changelog/db.changelog-master.yaml";
+
+    private StaffMigrations() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+
+        long startedAt = System.nanoTime();
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(new DriverManagerDataSource(environment.getRequiredProperty("spring.liquibase.url"),
+                environment.getProperty("spring.liquibase.user", ""), environment.getProperty("spring.liquibase.password", "")));
+        liquibase.setChangeLog(environment.getProperty("spring.liquibase.change-log", DEFAULT_CHANGE_LOG));
+        liquibase.setResourceLoader(new DefaultResourceLoader(StaffMigrations.class.getClassLoader()));
+        liquibase.afterPropertiesSet();
+        log.info("Staff database migrated in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
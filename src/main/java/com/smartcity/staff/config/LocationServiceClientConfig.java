@@ -0,0 +1,126 @@
+package com.smartcity.staff.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
+
+@Configuration
+public class LocationServiceClientConfig {
+    static final String LOCATION_SERVICE = "location-service";
+
+    @Bean
+    public WebClient locationServiceWebClient(WebClient.Builder webClientBuilder, Environment environment,
+                                              @Value("${smart_city.services.location-service.client.max-connections:200}") int maxConnections,
+                                              @Value("${smart_city.services.location-service.client.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+                                              @Value("${smart_city.services.location-service.client.pending-acquire-timeout:1s}") Duration pendingAcquireTimeout,
+                                              @Value("${smart_city.services.location-service.client.max-idle-time:30s}") Duration maxIdleTime,
+                                              @Value("${smart_city.services.location-service.client.connect-timeout:1s}") Duration connectTimeout,
+                                              @Value("${smart_city.services.location-service.client.response-timeout:2s}") Duration responseTimeout,
+                                              @Value("${smart_city.services.location-service.client.accept-smile:true}") boolean acceptSmile) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(LOCATION_SERVICE)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .responseTimeout(responseTimeout)
+                .metrics(true, LocationServiceClientConfig::uriTemplate);
+        WebClient.Builder builder = webClientBuilder.clone()
+                .baseUrl(Objects.requireNonNull(environment.getProperty("smart_city.services.location-service.url")))
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+        if (acceptSmile) {
+            builder.defaultHeader(HttpHeaders.ACCEPT, BinaryCodecConfig.APPLICATION_SMILE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9");
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public CircuitBreaker locationServiceCircuitBreaker(MeterRegistry meterRegistry,
+                                                        @Value("${smart_city.services.location-service.client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                                        @Value("${smart_city.services.location-service.client.circuit-breaker.slow-call-duration:1s}") Duration slowCallDuration,
+                                                        @Value("${smart_city.services.location-service.client.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+                                                        @Value("${smart_city.services.location-service.client.circuit-breaker.open-duration:10s}") Duration openDuration) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(10, slidingWindowSize))
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .recordException(LocationServiceClientConfig::isServiceFailure)
+                .ignoreException(LocationServiceClientConfig::isIgnored)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(LOCATION_SERVICE);
+    }
+
+    @Bean
+    public Bulkhead locationServiceBulkhead(MeterRegistry meterRegistry,
+                                            @Value("${smart_city.services.location-service.client.max-concurrent-calls:100}") int maxConcurrentCalls) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(LOCATION_SERVICE);
+    }
+
+    /**
+     * Only failures of the location-service itself count towards opening the circuit: 5xx answers,
+     * timeouts and connection errors.
+     */
+    private static boolean isServiceFailure(Throwable ex) {
+        return ex instanceof TimeoutException
+                || ex instanceof WebClientRequestException
+                || (ex instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError());
+    }
+
+    /**
+     * 4xx answers, such as a 401 for one user's forwarded token, say nothing about the service's health
+     * and count neither as failures nor as successes. Neither do calls the bulkhead turned away before
+     * they reached the service; counted as successes they would hide the failure rate while it is saturated.
+     */
+    private static boolean isIgnored(Throwable ex) {
+        return ex instanceof BulkheadFullException
+                || (ex instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+
+    private static String uriTemplate(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        if (path.endsWith("/bulk")) {
+            return path;
+        }
+        int lastSlash = path.lastIndexOf('/');
+        return lastSlash > 0 ? path.substring(0, lastSlash) + "/{id}" : path;
+    }
+}
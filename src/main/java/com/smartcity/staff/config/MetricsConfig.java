@@ -0,0 +1,15 @@
+package com.smartcity.staff.config;
+
+import com.smartcity.staff.shared.metrics.UriTags;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public NettyServerCustomizer nettyMetricsCustomizer() {
+        return httpServer -> httpServer.metrics(true, UriTags::template);
+    }
+}
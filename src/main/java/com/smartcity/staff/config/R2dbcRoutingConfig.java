@@ -0,0 +1,69 @@
+package com.smartcity.staff.config;
+
+import com.smartcity.staff.shared.r2dbc.ReadRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured connection pool with a primary pool (from {@code spring.r2dbc.*}) and
+ * one pool per replica url, routed by {@link com.smartcity.staff.shared.r2dbc.ReadReplicas}. Only active
+ * when {@code smart_city.r2dbc.replica.urls} is set. In the AOT-processed {@code fast-start} build the
+ * condition is evaluated at build time, so replica routing is only there if the urls were set when the
+ * artifact was built; setting them at runtime does not turn it on.
+ */
+@Configuration
+@ConditionalOnProperty("smart_city.r2dbc.replica.urls")
+public class R2dbcRoutingConfig {
+
+    @Bean
+    public ReadRoutingConnectionFactory connectionFactory(R2dbcProperties properties, MeterRegistry meterRegistry,
+                                                          @Value("${smart_city.r2dbc.replica.urls}") List<String> replicaUrls,
+                                                          @Value("${smart_city.r2dbc.replica.username:${spring.r2dbc.username:}}") String replicaUsername,
+                                                          @Value("${smart_city.r2dbc.replica.password:${spring.r2dbc.password:}}") String replicaPassword,
+                                                          @Value("${smart_city.r2dbc.replica.pool.initial-size:2}") int replicaInitialSize,
+                                                          @Value("${smart_city.r2dbc.replica.pool.max-size:20}") int replicaMaxSize,
+                                                          @Value("${smart_city.r2dbc.replica.pool.max-idle-time:PT30M}") Duration replicaMaxIdleTime,
+                                                          @Value("${smart_city.r2dbc.replica.pool.max-acquire-time:PT1S}") Duration replicaMaxAcquireTime) {
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPool primary = pool("primary", properties.getUrl(), properties.getUsername(), properties.getPassword(),
+                pool.getInitialSize(), pool.getMaxSize(), pool.getMaxIdleTime(), pool.getMaxAcquireTime(), meterRegistry);
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            replicas.add(pool("replica-" + i, replicaUrls.get(i).strip(), replicaUsername, replicaPassword,
+                    replicaInitialSize, replicaMaxSize, replicaMaxIdleTime, replicaMaxAcquireTime, meterRegistry));
+        }
+        return new ReadRoutingConnectionFactory(primary, replicas);
+    }
+
+    private static ConnectionPool pool(String name, String url, String username, String password, int initialSize, int maxSize,
+                                       Duration maxIdleTime, Duration maxAcquireTime, MeterRegistry meterRegistry) {
+        ConnectionFactoryBuilder builder = ConnectionFactoryBuilder.withUrl(url);
+        if (username != null && !username.isEmpty()) {
+            builder = builder.username(username).password(password);
+        }
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(builder.build())
+                .name(name)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime);
+        if (maxAcquireTime != null) {
+            configuration.maxAcquireTime(maxAcquireTime);
+        }
+        ConnectionPool connectionPool = new ConnectionPool(configuration.build());
+        new ConnectionPoolMetrics(connectionPool, name, Tags.empty()).bindTo(meterRegistry);
+        return connectionPool;
+    }
+}
@@ -0,0 +1,196 @@
+package com.smartcity.staff.location;
+
+import com.smartcity.models.City;
+import com.smartcity.models.Village;
+import com.smartcity.staff.shared.cache.ReactiveCache;
+import com.smartcity.staff.shared.exception.ServiceUnavailableException;
+import com.smartcity.staff.shared.exception.UnauthorizedException;
+import com.smartcity.staff.shared.jwt.JwtToken;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class LocationClient implements LocationDirectory {
+    private static final String CLIENT_TIMER = "location.client";
+
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Duration deadline;
+    private final Duration hedgeAfter;
+    private final Counter hedges;
+    private final Counter deadlinesExceeded;
+    private final ReactiveCache<String, City> cityCache;
+    private final ReactiveCache<String, Village> villageCache;
+    private final OperationTimer operationTimer;
+
+    public LocationClient(@Qualifier("locationServiceWebClient") WebClient webClient, CircuitBreaker locationServiceCircuitBreaker,
+                          Bulkhead locationServiceBulkhead, MeterRegistry meterRegistry, OperationTimer operationTimer,
+                          @Value("${smart_city.services.location-service.client.deadline:2s}") Duration deadline,
+                          @Value("${smart_city.services.location-service.client.hedge-after:0s}") Duration hedgeAfter,
+                          @Value("${smart_city.services.location-service.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${smart_city.services.location-service.cache.ttl:30m}") Duration ttl,
+                          @Value("${smart_city.services.location-service.cache.refresh-after:5m}") Duration refreshAfter) {
+        this.webClient = webClient;
+        this.circuitBreaker = locationServiceCircuitBreaker;
+        this.bulkhead = locationServiceBulkhead;
+        this.deadline = deadline;
+        this.hedgeAfter = hedgeAfter;
+        this.hedges = Counter.builder("location.client.hedges").register(meterRegistry);
+        this.deadlinesExceeded = Counter.builder("location.client.deadline.exceeded").register(meterRegistry);
+        this.cityCache = new ReactiveCache<>("location.cities", maximumSize, ttl, refreshAfter, meterRegistry);
+        this.villageCache = new ReactiveCache<>("location.villages", maximumSize, ttl, refreshAfter, meterRegistry);
+        this.operationTimer = operationTimer;
+    }
+
+    @Override
+    public Mono<Village> getVillageById(String id) {
+        return getAuth().flatMap(token -> villageCache.get(id, key -> fetchVillage(key, token)));
+    }
+
+    @Override
+    public Mono<City> getCityById(String id) {
+        return getAuth().flatMap(token -> cityCache.get(id, key -> fetchCity(key, token)));
+    }
+
+    @Override
+    public Mono<Map<String, City>> getCitiesByIds(Collection<String> ids) {
+        return getBulk(ids, cityCache, "/cities/bulk", "getCitiesByIds", City.class, City::getId);
+    }
+
+    @Override
+    public Mono<Map<String, Village>> getVillagesByIds(Collection<String> ids) {
+        return getBulk(ids, villageCache, "/villages/bulk", "getVillagesByIds", Village.class, Village::getId);
+    }
+
+    public Flux<City> getCityChanges(Instant updatedAfter, String token) {
+        return getChanges("/cities", "getCityChanges", updatedAfter, token, City.class);
+    }
+
+    public Flux<Village> getVillageChanges(Instant updatedAfter, String token) {
+        return getChanges("/villages", "getVillageChanges", updatedAfter, token, Village.class);
+    }
+
+    private <T> Flux<T> getChanges(String path, String operation, Instant updatedAfter, String token, Class<T> type) {
+        return operationTimer.time(CLIENT_TIMER, operation, webClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path(path);
+                    if (updatedAfter != null) {
+                        uriBuilder.queryParam("updatedAfter", updatedAfter.toString());
+                    }
+                    return uriBuilder.build();
+                })
+                .headers(httpHeaders -> httpHeaders.setBearerAuth(token))
+                .retrieve()
+                .bodyToFlux(type))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(LocationClient::isUnavailable, ex -> new ServiceUnavailableException("Location service unavailable: " + ex.getMessage(), ex));
+    }
+
+    private <T> Mono<Map<String, T>> getBulk(Collection<String> ids, ReactiveCache<String, T> cache, String uri, String operation,
+                                             Class<T> type, Function<T, Object> idOf) {
+        return Mono.defer(() -> {
+            Map<String, T> found = new HashMap<>();
+            List<String> missing = new ArrayList<>();
+            for (String id : ids) {
+                T cached = cache.getIfPresent(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+            if (missing.isEmpty()) {
+                return Mono.just(found);
+            }
+            return getAuth().flatMap(token -> guarded(operation, () -> webClient.post().uri(uri)
+                            .headers(httpHeaders -> httpHeaders.setBearerAuth(token))
+                            .bodyValue(missing)
+                            .retrieve()
+                            .bodyToFlux(type)
+                            .collectList()))
+                    .flatMapIterable(values -> values)
+                    .doOnNext(value -> cache.put(String.valueOf(idOf.apply(value)), value))
+                    .collectMap(value -> String.valueOf(idOf.apply(value)), Function.identity(), () -> found);
+        });
+    }
+
+    private Mono<Village> fetchVillage(String id, String token) {
+        return guarded("getVillageById", () -> webClient.get().uri("/villages/{id}", id)
+                .headers(httpHeaders -> httpHeaders.setBearerAuth(token))
+                .retrieve()
+                .bodyToMono(Village.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty()));
+    }
+
+    private Mono<City> fetchCity(String id, String token) {
+        return guarded("getCityById", () -> webClient.get().uri("/cities/{id}", id)
+                .headers(httpHeaders -> httpHeaders.setBearerAuth(token))
+                .retrieve()
+                .bodyToMono(City.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty()));
+    }
+
+    /**
+     * Each attempt takes a bulkhead permit; when hedging is enabled a second attempt starts if the first
+     * has not answered within {@code hedgeAfter} and the first signal wins. The whole call is bounded by
+     * the deadline and recorded by the circuit breaker, and infrastructure failures surface as
+     * {@link ServiceUnavailableException} so callers can fall back.
+     */
+    private <T> Mono<T> guarded(String operation, Supplier<Mono<T>> call) {
+        Mono<T> attempt = Mono.defer(call).transformDeferred(BulkheadOperator.of(bulkhead));
+        Mono<T> hedged = hedgeAfter.isZero() ? attempt
+                : Mono.firstWithSignal(attempt, Mono.delay(hedgeAfter).doOnNext(tick -> hedges.increment()).then(attempt));
+        return operationTimer.time(CLIENT_TIMER, operation, hedged.timeout(deadline))
+                .doOnError(TimeoutException.class, ex -> deadlinesExceeded.increment())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(LocationClient::isUnavailable, ex -> new ServiceUnavailableException("Location service unavailable: " + ex.getMessage(), ex));
+    }
+
+    private static boolean isUnavailable(Throwable ex) {
+        return ex instanceof CallNotPermittedException
+                || ex instanceof BulkheadFullException
+                || ex instanceof TimeoutException
+                || ex instanceof WebClientRequestException
+                || (ex instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError());
+    }
+
+    private Mono<String> getAuth() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .flatMap(authentication -> Mono.just(authentication)
+                        .cast(JwtToken.class)
+                        .map(JwtToken::getToken)
+                        .switchIfEmpty(Mono.error(new UnauthorizedException("Invalid token."))));
+    }
+}
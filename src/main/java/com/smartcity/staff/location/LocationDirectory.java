@@ -0,0 +1,18 @@
+package com.smartcity.staff.location;
+
+import com.smartcity.models.City;
+import com.smartcity.models.Village;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface LocationDirectory {
+    Mono<City> getCityById(String id);
+
+    Mono<Village> getVillageById(String id);
+
+    Mono<Map<String, City>> getCitiesByIds(Collection<String> ids);
+
+    Mono<Map<String, Village>> getVillagesByIds(Collection<String> ids);
+}
@@ -0,0 +1,155 @@
+package com.smartcity.staff.location;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.models.City;
+import com.smartcity.models.Village;
+import com.smartcity.staff.shared.jwt.TokenProvider;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Keeps the local {@code city} and {@code village} tables in step with the location-service. Each run
+ * asks only for records changed since the stored watermark (minus a small overlap for clock skew) and
+ * upserts them in batches; a record's {@code version} only moves when its payload actually changed.
+ */
+@Component
+@Slf4j
+public class LocationReplicaSync {
+    private static final String CITIES = "cities";
+    private static final String VILLAGES = "villages";
+    private static final Duration OVERLAP = Duration.ofMinutes(1);
+    private static final String DB_TIMER = "location.replica.db";
+
+    private final LocationClient locationClient;
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+    private final TokenProvider tokenProvider;
+    private final OperationTimer operationTimer;
+    private final String serviceName;
+    private final int batchSize;
+    private final AtomicReference<Instant> citiesSyncedUntil = new AtomicReference<>();
+    private final AtomicReference<Instant> villagesSyncedUntil = new AtomicReference<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LocationReplicaSync(LocationClient locationClient, R2dbcEntityTemplate r2dbcEntityTemplate, ObjectMapper objectMapper,
+                               TokenProvider tokenProvider, OperationTimer operationTimer, MeterRegistry meterRegistry,
+                               @Value("${spring.application.name}") String serviceName,
+                               @Value("${smart_city.location-replica.batch-size:500}") int batchSize) {
+        this.locationClient = locationClient;
+        this.databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        this.objectMapper = objectMapper;
+        this.tokenProvider = tokenProvider;
+        this.operationTimer = operationTimer;
+        this.serviceName = serviceName;
+        this.batchSize = batchSize;
+        registerLag(meterRegistry, CITIES, citiesSyncedUntil);
+        registerLag(meterRegistry, VILLAGES, villagesSyncedUntil);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        log.info("Bootstrapping location replica");
+        sync().subscribe(null, ex -> log.error("Location replica bootstrap failed: {}", ex.getMessage()));
+    }
+
+    @Scheduled(fixedDelayString = "${smart_city.location-replica.sync-interval:PT1M}",
+            initialDelayString = "${smart_city.location-replica.sync-interval:PT1M}")
+    public Mono<Void> sync() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            String token = tokenProvider.generateToken(User.withUsername(serviceName).password("").authorities("SYSTEM").build());
+            return syncResource(CITIES, "city", citiesSyncedUntil, since -> locationClient.getCityChanges(since, token), City::getId, City::getName)
+                    .then(syncResource(VILLAGES, "village", villagesSyncedUntil, since -> locationClient.getVillageChanges(since, token), Village::getId, Village::getName))
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    private <T> Mono<Void> syncResource(String resource, String table, AtomicReference<Instant> syncedUntil,
+                                        Function<Instant, Flux<T>> changes, Function<T, Object> idOf, Function<T, String> nameOf) {
+        Instant startedAt = Instant.now();
+        return watermark(resource)
+                .flatMap(since -> changes.apply(since.map(instant -> instant.minus(OVERLAP)).orElse(null))
+                        .buffer(batchSize)
+                        .concatMap(batch -> upsert(table, batch, idOf, nameOf, startedAt), 1)
+                        .reduce(0L, Long::sum)
+                        .doOnNext(count -> log.info("Synced {} {} changed since {}", count, resource, since.orElse(null))))
+                .then(saveWatermark(resource, startedAt))
+                .doOnSuccess(ignored -> syncedUntil.set(startedAt));
+    }
+
+    private Mono<Optional<Instant>> watermark(String resource) {
+        return operationTimer.time(DB_TIMER, "readWatermark", databaseClient.sql("SELECT synced_until FROM location_sync WHERE resource = :resource")
+                        .bind("resource", resource)
+                        .map(row -> row.get("synced_until", Instant.class))
+                        .one())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private Mono<Void> saveWatermark(String resource, Instant syncedUntil) {
+        return operationTimer.time(DB_TIMER, "saveWatermark", databaseClient.sql("INSERT INTO location_sync (resource, synced_until) VALUES (:resource, :syncedUntil) "
+                        + "ON DUPLICATE KEY UPDATE synced_until = VALUES(synced_until)")
+                .bind("resource", resource)
+                .bind("syncedUntil", syncedUntil)
+                .then());
+    }
+
+    private <T> Mono<Long> upsert(String table, List<T> batch, Function<T, Object> idOf, Function<T, String> nameOf, Instant syncedAt) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (id, name, payload, version, synced_at) VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:id").append(i).append(", :name").append(i).append(", :payload").append(i).append(", 1, :syncedAt)");
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE version = CASE WHEN payload = VALUES(payload) THEN version ELSE version + 1 END, ")
+                .append("name = VALUES(name), payload = VALUES(payload), synced_at = VALUES(synced_at)");
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql.toString()).bind("syncedAt", syncedAt);
+        for (int i = 0; i < batch.size(); i++) {
+            T location = batch.get(i);
+            String name = nameOf.apply(location);
+            statement = statement.bind("id" + i, String.valueOf(idOf.apply(location)))
+                    .bind("payload" + i, toJson(location));
+            statement = name == null ? statement.bindNull("name" + i, String.class) : statement.bind("name" + i, name);
+        }
+        return operationTimer.time(DB_TIMER, "upsert", statement.fetch().rowsUpdated()).thenReturn((long) batch.size());
+    }
+
+    private String toJson(Object location) {
+        try {
+            return objectMapper.writeValueAsString(location);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + location, e);
+        }
+    }
+
+    private static void registerLag(MeterRegistry meterRegistry, String resource, AtomicReference<Instant> syncedUntil) {
+        Gauge.builder("location.replica.lag", syncedUntil, ref -> {
+                    Instant until = ref.get();
+                    return until == null ? Double.NaN : Duration.between(until, Instant.now()).toMillis() / 1000.0;
+                })
+                .baseUnit("seconds")
+                .tag("resource", resource)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartcity.staff.shared.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit driven by request latency: grows by about one slot per limit's worth of fast
+ * requests while the limit is actually being used, and shrinks by {@code backoffRatio} when a request is
+ * slower than the threshold or fails with an overload. Only requests admitted after the last cut can
+ * cut it again, so one slow burst costs one backoff rather than one per request in flight.
+ */
+final class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final double priorityReserve;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long lastDecreaseAt = Long.MIN_VALUE;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+                             double backoffRatio, double priorityReserve) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.priorityReserve = priorityReserve;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Takes a slot if one is free. Callers without {@code priority} leave the top
+     * {@code priorityReserve} share of the limit free for those with it.
+     */
+    boolean tryAcquire(boolean priority) {
+        int current = limit();
+        int allowed = priority ? current : current - (int) Math.ceil(current * priorityReserve);
+        while (true) {
+            int taken = inFlight.get();
+            if (taken >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(taken, taken + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot for a request that completed, adjusting the limit by its latency.
+     */
+    void completed(long startedAt, long now) {
+        int taken = inFlight.getAndDecrement();
+        if (now - startedAt > latencyThresholdNanos) {
+            decrease(startedAt, now);
+        } else if (taken * 2 >= limit) {
+            increase();
+        }
+    }
+
+    /**
+     * Releases a slot for a request that failed because something behind it was overloaded.
+     */
+    void dropped(long startedAt, long now) {
+        inFlight.decrementAndGet();
+        decrease(startedAt, now);
+    }
+
+    /**
+     * Releases a slot without taking the request as a sample, e.g. when the caller went away.
+     */
+    void ignored() {
+        inFlight.decrementAndGet();
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    private synchronized void decrease(long startedAt, long now) {
+        if (startedAt < lastDecreaseAt) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseAt = now;
+    }
+}
@@ -0,0 +1,168 @@
+package com.smartcity.staff.shared.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+/**
+ * Sheds load before it reaches the handlers: a per-subject token bucket answers 429 to callers over
+ * their quota, and an {@link AdaptiveConcurrencyLimit} answers 503 once the service is as busy as its
+ * latency allows. Both carry {@code Retry-After}. {@code SYSTEM} callers skip the quota and may use the
+ * share of the limit that other callers leave free. Streams and imports only go through the quota.
+ * Runs in the security filter chain right after authentication; it is not a bean of type
+ * {@link WebFilter} so WebFlux does not register it a second time.
+ */
+@Component
+public class AdmissionControl {
+    private static final String SYSTEM = "SYSTEM";
+    private static final String ACTUATOR = "/actuator/";
+    private static final String STAFF = "/staff";
+    private static final String EVENTS = "/staff/events";
+    private static final String IMPORT = "/staff/import";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final TokenBuckets quotas;
+    private final long overloadedRetryAfterSeconds;
+    private final Counter overloaded;
+    private final Counter overloadedSystem;
+    private final Counter overQuota;
+
+    public AdmissionControl(MeterRegistry meterRegistry,
+                            @Value("${smart_city.admission.initial-limit:64}") int initialLimit,
+                            @Value("${smart_city.admission.min-limit:8}") int minLimit,
+                            @Value("${smart_city.admission.max-limit:512}") int maxLimit,
+                            @Value("${smart_city.admission.latency-threshold:PT0.25S}") Duration latencyThreshold,
+                            @Value("${smart_city.admission.backoff-ratio:0.9}") double backoffRatio,
+                            @Value("${smart_city.admission.system-reserve:0.1}") double systemReserve,
+                            @Value("${smart_city.admission.retry-after:PT1S}") Duration overloadedRetryAfter,
+                            @Value("${smart_city.admission.quota.requests-per-second:50}") double quotaPerSecond,
+                            @Value("${smart_city.admission.quota.burst:100}") int quotaBurst,
+                            @Value("${smart_city.admission.quota.maximum-subjects:100000}") long maximumSubjects) {
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThreshold.toNanos(), backoffRatio, systemReserve);
+        this.quotas = new TokenBuckets(quotaPerSecond, quotaBurst, maximumSubjects);
+        this.overloadedRetryAfterSeconds = Math.max(1, overloadedRetryAfter.toSeconds());
+        Gauge.builder("staff.admission.limit", limit, AdaptiveConcurrencyLimit::limit).register(meterRegistry);
+        Gauge.builder("staff.admission.in_flight", limit, AdaptiveConcurrencyLimit::inFlight).register(meterRegistry);
+        this.overloaded = rejected(meterRegistry, "limit", "user");
+        this.overloadedSystem = rejected(meterRegistry, "limit", "system");
+        this.overQuota = rejected(meterRegistry, "quota", "user");
+    }
+
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getPath().pathWithinApplication().value().startsWith(ACTUATOR)) {
+            return chain.filter(exchange);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> !(authentication instanceof AnonymousAuthenticationToken))
+                .map(Caller::of)
+                .defaultIfEmpty(Caller.ANONYMOUS)
+                .flatMap(caller -> admit(caller, exchange, chain));
+    }
+
+    private Mono<Void> admit(Caller caller, ServerWebExchange exchange, WebFilterChain chain) {
+        if (!caller.system() && caller.subject() != null) {
+            long waitNanos = quotas.tryAcquire(caller.subject(), System.nanoTime());
+            if (waitNanos > 0) {
+                overQuota.increment();
+                return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, Math.ceilDiv(waitNanos, 1_000_000_000L));
+            }
+        }
+        if (isLongLived(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        if (!limit.tryAcquire(caller.system())) {
+            (caller.system() ? overloadedSystem : overloaded).increment();
+            return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, overloadedRetryAfterSeconds);
+        }
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> release(exchange, startedAt, signal));
+    }
+
+    private void release(ServerWebExchange exchange, long startedAt, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            limit.ignored();
+        } else if (isOverloaded(exchange.getResponse().getStatusCode())) {
+            limit.dropped(startedAt, System.nanoTime());
+        } else {
+            limit.completed(startedAt, System.nanoTime());
+        }
+    }
+
+    /**
+     * SSE events, the NDJSON staff stream and imports hold their exchange for as long as there is data to
+     * send or receive, so they would pin a slot indefinitely and their duration says nothing about how
+     * busy the service is. They take no slot and are not latency samples.
+     */
+    private static boolean isLongLived(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        if (HttpMethod.POST.equals(request.getMethod())) {
+            return path.equals(IMPORT);
+        }
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return false;
+        }
+        if (path.equals(EVENTS)) {
+            return true;
+        }
+        try {
+            return path.equals(STAFF) && request.getHeaders().getAccept().stream()
+                    .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A 503 from further in means something behind this service (the database pool, the location
+     * service) is saturated, which is as good a reason to back off as a slow response.
+     */
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status != null && status.value() == HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, long retryAfterSeconds) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason, String caller) {
+        return Counter.builder("staff.admission.rejected")
+                .tag("reason", reason)
+                .tag("caller", caller)
+                .register(meterRegistry);
+    }
+
+    private record Caller(String subject, boolean system) {
+        static final Caller ANONYMOUS = new Caller(null, false);
+
+        static Caller of(Authentication authentication) {
+            boolean system = authentication.getAuthorities().stream()
+                    .anyMatch(authority -> SYSTEM.equals(authority.getAuthority()));
+            return new Caller(authentication.getName(), system);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.smartcity.staff.shared.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * One token bucket per key, refilled continuously. A bucket idle long enough to have refilled completely
+ * is the same as a new one, so it is evicted after that long without access.
+ */
+final class TokenBuckets {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Cache<String, Bucket> buckets;
+
+    TokenBuckets(double tokensPerSecond, int capacity, long maximumKeys) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity / tokensPerNano)).plusSeconds(1))
+                .build();
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket. Returns 0 when one was taken, otherwise the nanoseconds
+     * until the next one is due.
+     */
+    long tryAcquire(String key, long now) {
+        return buckets.get(key, ignored -> new Bucket(now)).tryAcquire(now);
+    }
+
+    private final class Bucket {
+        private double tokens = capacity;
+        private long updatedAt;
+
+        Bucket(long now) {
+            this.updatedAt = now;
+        }
+
+        synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+            updatedAt = now;
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+    }
+}
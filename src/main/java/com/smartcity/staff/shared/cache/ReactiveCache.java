@@ -0,0 +1,71 @@
+package com.smartcity.staff.shared.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Size-bounded (W-TinyLFU) async cache with a hard TTL. Concurrent misses for a key share one in-flight
+ * load, and entries older than {@code refreshAfter} are served stale while a single background reload runs.
+ */
+@Slf4j
+public class ReactiveCache<K, V> {
+    private final String name;
+    private final AsyncCache<K, Stamped<V>> cache;
+    private final long refreshAfterNanos;
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+
+    public ReactiveCache(String name, long maximumSize, Duration ttl, Duration refreshAfter, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> load(k, loader)), true)
+                .doOnNext(stamped -> refreshIfStale(key, stamped, loader))
+                .map(Stamped::value);
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, CompletableFuture.completedFuture(new Stamped<>(value, System.nanoTime())));
+    }
+
+    public V getIfPresent(K key) {
+        Stamped<V> stamped = cache.synchronous().getIfPresent(key);
+        return stamped == null ? null : stamped.value();
+    }
+
+    private CompletableFuture<Stamped<V>> load(K key, Function<K, Mono<V>> loader) {
+        return loader.apply(key)
+                .map(value -> new Stamped<>(value, System.nanoTime()))
+                .toFuture();
+    }
+
+    private void refreshIfStale(K key, Stamped<V> stamped, Function<K, Mono<V>> loader) {
+        if (System.nanoTime() - stamped.loadedAt() < refreshAfterNanos || !refreshing.add(key)) {
+            return;
+        }
+        loader.apply(key)
+                .doFinally(signal -> refreshing.remove(key))
+                .subscribe(value -> put(key, value),
+                        ex -> log.warn("Background refresh of {} in cache {} failed: {}", key, name, ex.getMessage()));
+    }
+
+    private record Stamped<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.smartcity.staff.shared.exception;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reuses the caller's {@value #HEADER} when it is a UUID, otherwise makes a random (version 4) one
+ * from {@link ThreadLocalRandom} rather than {@link UUID#randomUUID()}, which goes through SecureRandom.
+ * Correlation ids only need to be unique, not unpredictable.
+ */
+public final class CorrelationIds {
+    public static final String HEADER = "X-Correlation-Id";
+    private static final int UUID_LENGTH = 36;
+
+    private CorrelationIds() {
+    }
+
+    public static UUID of(ServerWebExchange exchange) {
+        UUID fromRequest = parse(exchange.getRequest().getHeaders().getFirst(HEADER));
+        return fromRequest != null ? fromRequest : generate();
+    }
+
+    static UUID generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & ~(0xC000000000000000L)) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static UUID parse(String value) {
+        if (value == null || value.length() != UUID_LENGTH) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -4,28 +4,41 @@ package com.smartcity.staff.shared.exception;
 import com.smartcity.models.Error;
 import com.smartcity.models.ErrorDetails;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @RestControllerAdvice
 @Slf4j
 public class CustomExceptionHandler {
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Error> handleValidationException(MethodArgumentNotValidException ex, ServerWebExchange  exchange) {
-        log.error("Validation errors occurred for request {} {}: {}",
-                exchange.getRequest().getMethod(), exchange.getRequest().getURI().getPath(), ex.getBindingResult());
-        List<ErrorDetails> detailedErrors = getErrorDetailedErrorsInners(ex);
+    private final ErrorLogLimiter errorLogLimiter;
+
+    public CustomExceptionHandler(@Value("${smart_city.error-log.permits-per-second:10}") int errorLogPermitsPerSecond) {
+        this.errorLogLimiter = new ErrorLogLimiter(errorLogPermitsPerSecond);
+    }
+
+    @ExceptionHandler({MethodArgumentNotValidException.class, WebExchangeBindException.class})
+    public ResponseEntity<Error> handleValidationException(Exception ex, ServerWebExchange  exchange) {
+        BindingResult bindingResult = (BindingResult) ex;
+        if (errorLogLimiter.tryAcquire("validation") != ErrorLogLimiter.SUPPRESSED) {
+            log.warn("Validation errors occurred for request {} {}: {}",
+                    exchange.getRequest().getMethod(), exchange.getRequest().getURI().getPath(), bindingResult);
+        }
+        List<ErrorDetails> detailedErrors = getErrorDetailedErrorsInners(bindingResult);
         Error error = createBaseError(exchange, HttpStatus.BAD_REQUEST);
         error.setErrorMessage("Validation failed for request. See detailedErrors for more information.");
         error.setDetailedErrors(detailedErrors);
@@ -33,16 +46,21 @@ public class CustomExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Error> handleResourceNotFoundException(ResourceNotFoundException ex, ServerWebExchange exchange) {
-        log.error("Resource not found for request {} {}: {}",
-                exchange.getRequest().getMethod().name(),exchange.getRequest().getURI().getPath(), ex.getMessage());
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<Error> handleDomainException(DomainException ex, ServerWebExchange exchange) {
+        return errorResponse(ex.getStatus(), ex.getClass().getSimpleName(), ex.getMessage(), exchange, null);
+    }
 
-        Error error = createBaseError(exchange, HttpStatus.NOT_FOUND);
-        error.setErrorMessage(ex.getMessage());
-        error.setDetailedErrors(null);
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Error> handleAccessDeniedException(AccessDeniedException ex, ServerWebExchange exchange) {
+        return errorResponse(HttpStatus.FORBIDDEN, "AccessDenied", ex.getMessage(), exchange, null);
+    }
 
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Error> handleResponseStatusException(ResponseStatusException ex, ServerWebExchange exchange) {
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        return errorResponse(status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR, ex.getClass().getSimpleName(),
+                ex.getReason() != null ? ex.getReason() : ex.getMessage(), exchange, null);
     }
 //    @ExceptionHandler(AuthException.class)
 //    public ResponseEntity<Error> handleAuthException(AuthException ex, ServerWebExchange exchange) {
@@ -57,29 +75,38 @@ public class CustomExceptionHandler {
 //    }
     @ExceptionHandler(IOException.class)
     public ResponseEntity<Error> handleIOException(IOException ex, ServerWebExchange exchange) {
-        log.error("IO error occurred for request {} {}: {}",
-                exchange.getRequest().getMethod().name(), exchange.getRequest().getURI().getPath(), ex.getMessage());
-
-        Error error = createBaseError(exchange, HttpStatus.INTERNAL_SERVER_ERROR);
-        error.setErrorMessage(ex.getMessage());
-        error.setDetailedErrors(null);
-
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "IOException", ex.getMessage(), exchange, ex);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Error> handleGeneralException(Exception ex, ServerWebExchange exchange) {
-        log.error("Unexpected error occurred for request {} {}: {} stack trace: {}", exchange.getRequest().getMethod().name(), exchange.getRequest().getURI().getPath(), ex.getMessage(),ex.fillInStackTrace());
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getClass().getName(), ex.getMessage(), exchange, ex);
+    }
 
-        Error error = createBaseError(exchange, HttpStatus.INTERNAL_SERVER_ERROR);
-        error.setErrorMessage(ex.getMessage());
+    private ResponseEntity<Error> errorResponse(HttpStatus status, String kind, String message, ServerWebExchange exchange, Throwable unexpected) {
+        Error error = createBaseError(exchange, status);
+        error.setErrorMessage(message);
         error.setDetailedErrors(null);
-
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        long dropped = errorLogLimiter.tryAcquire(kind);
+        if (dropped != ErrorLogLimiter.SUPPRESSED) {
+            if (unexpected != null) {
+                log.error("Unexpected error occurred for request {} {} [{}] ({} similar suppressed): {}", exchange.getRequest().getMethod().name(),
+                        exchange.getRequest().getURI().getPath(), error.getCorrelationIdentifier(), dropped, message, unexpected);
+            } else if (status.is5xxServerError()) {
+                log.error("{} for request {} {} [{}] ({} similar suppressed): {}", kind, exchange.getRequest().getMethod().name(),
+                        exchange.getRequest().getURI().getPath(), error.getCorrelationIdentifier(), dropped, message);
+            } else {
+                log.warn("{} for request {} {} [{}] ({} similar suppressed): {}", kind, exchange.getRequest().getMethod().name(),
+                        exchange.getRequest().getURI().getPath(), error.getCorrelationIdentifier(), dropped, message);
+            }
+        }
+        return ResponseEntity.status(status)
+                .header(CorrelationIds.HEADER, String.valueOf(error.getCorrelationIdentifier()))
+                .body(error);
     }
 
-    private List<ErrorDetails> getErrorDetailedErrorsInners(MethodArgumentNotValidException ex) {
-        return ex.getBindingResult().getFieldErrors().stream()
+    private List<ErrorDetails> getErrorDetailedErrorsInners(BindingResult bindingResult) {
+        return bindingResult.getFieldErrors().stream()
                 .map(fieldError -> {
                     ErrorDetails errorDetail = new ErrorDetails();
                     errorDetail.setField(fieldError.getField());
@@ -93,9 +120,9 @@ public class CustomExceptionHandler {
     }
 
 
-    private Error createBaseError(ServerWebExchange exchange, HttpStatus status) {
+    Error createBaseError(ServerWebExchange exchange, HttpStatus status) {
         Error error = new Error();
-        error.setCorrelationIdentifier(UUID.randomUUID());
+        error.setCorrelationIdentifier(CorrelationIds.of(exchange));
         error.setErrorTimestamp(OffsetDateTime.now());
         error.statusCode(BigDecimal.valueOf(status.value()));
         error.setHttpMethod(Error.HttpMethodEnum.valueOf(exchange.getRequest().getMethod().name()));
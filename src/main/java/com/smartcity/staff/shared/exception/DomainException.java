@@ -0,0 +1,24 @@
+package com.smartcity.staff.shared.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.io.Serial;
+
+/**
+ * Base for expected failures that end up as an error response. These are control flow, not bugs, so
+ * they skip stack trace capture and suppression bookkeeping and cost little more than the message.
+ */
+public abstract class DomainException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    protected DomainException(String message) {
+        this(message, null);
+    }
+
+    protected DomainException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+
+    public abstract HttpStatus getStatus();
+}
@@ -0,0 +1,49 @@
+package com.smartcity.staff.shared.exception;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets through at most {@code permitsPerSecond} log lines per key each second and counts the rest,
+ * so a burst of identical errors costs a map lookup instead of a formatted log line each.
+ */
+class ErrorLogLimiter {
+    static final long SUPPRESSED = -1;
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    private final int permitsPerSecond;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    ErrorLogLimiter(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    /**
+     * Returns {@link #SUPPRESSED} when the caller should not log, otherwise how many lines for this key
+     * were dropped since the last one that was let through.
+     */
+    long tryAcquire(String key) {
+        return windows.computeIfAbsent(key, ignored -> new Window()).tryAcquire(System.nanoTime());
+    }
+
+    private final class Window {
+        private long startedAt = Long.MIN_VALUE;
+        private int used;
+        private long dropped;
+
+        synchronized long tryAcquire(long now) {
+            if (startedAt == Long.MIN_VALUE || now - startedAt >= SECOND_NANOS) {
+                startedAt = now;
+                used = 0;
+            }
+            if (used >= permitsPerSecond) {
+                dropped++;
+                return SUPPRESSED;
+            }
+            used++;
+            long droppedSinceLast = dropped;
+            dropped = 0;
+            return droppedSinceLast;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.smartcity.staff.shared.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.io.Serial;
+
+public class GoneException extends DomainException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    public GoneException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.GONE;
+    }
+}
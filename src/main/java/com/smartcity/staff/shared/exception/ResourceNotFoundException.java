@@ -1,11 +1,18 @@
 package com.smartcity.staff.shared.exception;
 
+import org.springframework.http.HttpStatus;
+
 import java.io.Serial;
 
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends DomainException {
     @Serial
     private static final long serialVersionUID = 1L;
     public ResourceNotFoundException(String message) {
         super(message);
     }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.NOT_FOUND;
+    }
 }
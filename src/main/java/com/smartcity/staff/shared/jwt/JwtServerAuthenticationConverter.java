@@ -2,6 +2,8 @@ package com.smartcity.staff.shared.jwt;
 
 import com.smartcity.staff.shared.jwt.JwtService;
 import com.smartcity.staff.shared.jwt.JwtToken;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
@@ -20,6 +22,7 @@ import java.util.List;
 class JwtServerAuthenticationConverter implements ServerAuthenticationConverter {
 
     private final JwtService jwtService;
+    private final OperationTimer operationTimer;
     private static final String BEARER = "Bearer ";
 
     @Override
@@ -27,20 +30,23 @@ class JwtServerAuthenticationConverter implements ServerAuthenticationConverter
         return Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION))
                 .filter(header -> header.startsWith(BEARER))
                 .map(header -> header.substring(BEARER.length()))
-                .map(token -> new JwtToken(token, createUserDetails(token)));
+                .map(token -> {
+                    Claims claims = operationTimer.record("jwt.verification", "verify", () -> jwtService.verify(token));
+                    return new JwtToken(token, claims, createUserDetails(claims));
+                });
     }
 
-    private UserDetails createUserDetails(String token) {
-        String username = jwtService.extractUsername(token);
+    private UserDetails createUserDetails(Claims claims) {
+        String username = jwtService.extractUsername(claims);
         return User.builder()
                 .username(username)
-                .authorities(createAuthorities(token))
+                .authorities(createAuthorities(claims))
                 .password("")
                 .build();
     }
 
-    private List<SimpleGrantedAuthority> createAuthorities(String token) {
-        return jwtService.extractRoles(token).stream()
+    private List<SimpleGrantedAuthority> createAuthorities(Claims claims) {
+        return jwtService.extractRoles(claims).stream()
                 .map(SimpleGrantedAuthority::new)
                 .toList();
     }
@@ -1,9 +1,11 @@
 package com.smartcity.staff.shared.jwt;
 
-import com.smartcity.staff.shared.jwt.JwtAuthenticationException;
-import com.smartcity.staff.shared.jwt.TokenProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -16,23 +18,39 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
 class JwtService implements TokenProvider {
 
-    @Value("${jwt.secret-key}")
-    private String secretKey;
+    private final long tokenExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
 
-    @Value("${jwt.token-expiration-seconds}")
-    private long tokenExpiration;
+    JwtService(@Value("${jwt.secret-key}") String secretKey,
+               @Value("${jwt.token-expiration-seconds}") long tokenExpiration,
+               @Value("${jwt.cache.maximum-size:10000}") long cacheSize) {
+        this.tokenExpiration = tokenExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .build();
+    }
+
+    Claims verify(String jwt) {
+        return verifiedTokens.get(jwt, this::extractAllClaims);
+    }
 
-    String extractUsername(String jwt) {
-        return extractClaim(jwt, Claims::getSubject);
+    String extractUsername(Claims claims) {
+        return claims.getSubject();
     }
 
-    List<String> extractRoles(String jwt) {
-        return extractClaim(jwt, claims -> (List<String>) claims.get("roles"));
+    @SuppressWarnings("unchecked")
+    List<String> extractRoles(Claims claims) {
+        return (List<String>) claims.get("roles");
     }
 
     @Override
@@ -40,12 +58,13 @@ class JwtService implements TokenProvider {
         return generateToken(Map.of(), userDetails);
     }
 
-    boolean isTokenValid(String jwt) {
-        return !isTokenExpired(jwt);
+    boolean isTokenValid(Claims claims) {
+        return !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String jwt) {
-        return extractClaim(jwt, Claims::getExpiration).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration == null || expiration.before(new Date());
     }
 
     private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -58,29 +77,36 @@ class JwtService implements TokenProvider {
                         .toArray())
                 .issuedAt(new Date(currentTimeMillis))
                 .expiration(new Date(currentTimeMillis + tokenExpiration * 1000))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    private <T> T extractClaim(String jwt, Function<Claims, T> claimResolver) {
-        Claims claims = extractAllClaims(jwt);
-        return claimResolver.apply(claims);
-    }
-
     private Claims extractAllClaims(String jwt) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(jwt)
-                    .getPayload();
+            return parser.parseSignedClaims(jwt).getPayload();
         } catch (JwtException e) {
             throw new JwtAuthenticationException(e.getMessage());
         }
     }
 
-    private SecretKey getSigningKey() {
-        byte[] bytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(bytes);
+    private static class ExpireAtTokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String jwt, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String jwt, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(jwt, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String jwt, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
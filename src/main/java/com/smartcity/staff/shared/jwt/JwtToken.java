@@ -1,5 +1,6 @@
 package com.smartcity.staff.shared.jwt;
 
+import io.jsonwebtoken.Claims;
 import lombok.Getter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -9,16 +10,18 @@ import org.springframework.security.core.userdetails.UserDetails;
 public class JwtToken extends AbstractAuthenticationToken {
 
     private final String token;
+    private final Claims claims;
     private final UserDetails principal;
 
-    JwtToken(String token, UserDetails principal) {
+    JwtToken(String token, Claims claims, UserDetails principal) {
         super(principal.getAuthorities());
         this.token = token;
+        this.claims = claims;
         this.principal = principal;
     }
 
     Authentication withAuthenticated(boolean isAuthenticated) {
-        JwtToken cloned = new JwtToken(token, principal);
+        JwtToken cloned = new JwtToken(token, claims, principal);
         cloned.setAuthenticated(isAuthenticated);
         return cloned;
     }
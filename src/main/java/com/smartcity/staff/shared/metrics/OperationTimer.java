@@ -0,0 +1,66 @@
+package com.smartcity.staff.shared.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Times reactive operations from subscription to termination, tagged by a fixed operation name and
+ * outcome (success, error, cancel) so tag cardinality stays bounded.
+ */
+@Component
+public class OperationTimer {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public OperationTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> time(String name, String operation, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(timer(name, operation, signal)));
+        });
+    }
+
+    public <T> Flux<T> time(String name, String operation, Flux<T> flux) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return flux.doFinally(signal -> sample.stop(timer(name, operation, signal)));
+        });
+    }
+
+    public <T> T record(String name, String operation, Supplier<T> supplier) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        SignalType outcome = SignalType.ON_ERROR;
+        try {
+            T result = supplier.get();
+            outcome = SignalType.ON_COMPLETE;
+            return result;
+        } finally {
+            sample.stop(timer(name, operation, outcome));
+        }
+    }
+
+    private Timer timer(String name, String operation, SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancel";
+            default -> "success";
+        };
+        return timers.computeIfAbsent(name + '|' + operation + '|' + outcome, key -> Timer.builder(name)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
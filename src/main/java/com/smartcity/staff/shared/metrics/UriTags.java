@@ -0,0 +1,16 @@
+package com.smartcity.staff.shared.metrics;
+
+import java.util.regex.Pattern;
+
+public final class UriTags {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|\\d+)(?=/|$)");
+
+    private UriTags() {
+    }
+
+    public static String template(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+}
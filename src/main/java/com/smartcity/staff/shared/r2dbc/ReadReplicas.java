@@ -0,0 +1,29 @@
+package com.smartcity.staff.shared.r2dbc;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Marks a query as safe to run on a read replica. Unmarked queries, and any query inside a transaction,
+ * use the primary; without replicas configured the mark has no effect. The mark applies to everything
+ * upstream, so wrap the query itself rather than a pipeline that also writes.
+ */
+public final class ReadReplicas {
+    private static final String CONTEXT_KEY = ReadReplicas.class.getName();
+
+    private ReadReplicas() {
+    }
+
+    public static <T> Flux<T> read(Flux<T> query) {
+        return query.contextWrite(context -> context.put(CONTEXT_KEY, Boolean.TRUE));
+    }
+
+    public static <T> Mono<T> read(Mono<T> query) {
+        return query.contextWrite(context -> context.put(CONTEXT_KEY, Boolean.TRUE));
+    }
+
+    static boolean requested(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, Boolean.FALSE);
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartcity.staff.shared.r2dbc;
+
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends queries marked with {@link ReadReplicas} to the replica pools in turn and everything else to
+ * the primary pool. Owns the pools and disposes them with the context.
+ */
+public class ReadRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+    private final ConnectionPool primary;
+    private final List<ConnectionPool> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadRoutingConnectionFactory(ConnectionPool primary, List<ConnectionPool> replicas) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica pool is required");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> ReadReplicas.requested(context)
+                ? Mono.just(Math.floorMod(next.getAndIncrement(), replicas.size()))
+                : Mono.empty());
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(ConnectionPool::dispose);
+        primary.dispose();
+    }
+}
@@ -0,0 +1,43 @@
+package com.smartcity.staff.staff;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * The etag this instance last wrote for each recently changed staff row, so a replica read of that row
+ * can tell whether the replica has caught up with it. Entries outlive the expected replica lag.
+ */
+@Component
+class RecentStaffWrites {
+    private static final long UNKNOWN = Long.MAX_VALUE;
+
+    private final Cache<String, Long> written;
+
+    RecentStaffWrites(@Value("${smart_city.r2dbc.replica.read-your-writes-window:PT30S}") Duration window,
+                      @Value("${smart_city.r2dbc.replica.read-your-writes-size:10000}") long maximumSize) {
+        this.written = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Records a write that left the row at {@code etag}; {@code null} for a delete or a write whose
+     * resulting etag is not known, which sends reads of the row to the primary until the entry expires.
+     */
+    void written(String id, Long etag) {
+        written.asMap().merge(id, etag == null ? UNKNOWN : etag, Math::max);
+    }
+
+    /**
+     * The lowest etag a read must see to include this instance's writes, or {@code null} when there
+     * were none recently.
+     */
+    Long minimumEtag(String id) {
+        return written.getIfPresent(id);
+    }
+}
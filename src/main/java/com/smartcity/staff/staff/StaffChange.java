@@ -0,0 +1,25 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.models.Staff;
+
+import java.time.Instant;
+
+record StaffChange(String id, Type type, Instant changedAt, String etag, Staff staff) {
+
+    enum Type {
+        UPSERTED,
+        DELETED
+    }
+
+    static StaffChange upserted(StaffRow row) {
+        return new StaffChange(row.staff().getId(), Type.UPSERTED, row.staff().getUpdatedAt(), row.etag(), row.toModel());
+    }
+
+    static StaffChange deleted(StaffTombstone tombstone) {
+        return new StaffChange(tombstone.id(), Type.DELETED, tombstone.deletedAt(), null, null);
+    }
+
+    StaffChangeCursor cursor() {
+        return new StaffChangeCursor(changedAt, id);
+    }
+}
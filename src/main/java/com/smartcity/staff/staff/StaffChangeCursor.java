@@ -0,0 +1,31 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the change feed: the {@code (updated_at, id)} of the last change a client has seen.
+ */
+record StaffChangeCursor(Instant at, String id) {
+    static final StaffChangeCursor START = new StaffChangeCursor(Instant.EPOCH, "");
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static StaffChangeCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new StaffChangeCursor(Instant.parse(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
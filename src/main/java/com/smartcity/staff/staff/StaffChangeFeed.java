@@ -0,0 +1,91 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.GoneException;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keyset-paged delta of staff upserts and tombstones ordered by {@code (changed_at, id)}. Each page reads
+ * at most {@code limit} rows from both the {@code (updated_at, id)} and {@code (deleted_at, id)} indexes,
+ * so a sync costs in proportion to what changed. Changes younger than the settle time are held back so a
+ * write that commits late with an earlier timestamp is not skipped by a cursor that already moved past it.
+ */
+@Service
+@Slf4j
+class StaffChangeFeed {
+    private static final String DB_TIMER = "staff.db";
+    private static final Comparator<StaffChange> ORDER = Comparator.comparing(StaffChange::changedAt).thenComparing(StaffChange::id);
+
+    private final StaffReadRepository staffReadRepository;
+    private final StaffTombstoneRepository tombstoneRepository;
+    private final OperationTimer operationTimer;
+    private final Duration settleTime;
+    private final Duration tombstoneRetention;
+
+    StaffChangeFeed(StaffReadRepository staffReadRepository, StaffTombstoneRepository tombstoneRepository, OperationTimer operationTimer,
+                    @Value("${smart_city.staff.changes.settle-time:PT5S}") Duration settleTime,
+                    @Value("${smart_city.staff.changes.tombstone-retention:P30D}") Duration tombstoneRetention) {
+        this.staffReadRepository = staffReadRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.operationTimer = operationTimer;
+        this.settleTime = settleTime;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    Mono<StaffChangePage> getChanges(String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, StaffService.MAX_PAGE_SIZE);
+        return Mono.fromCallable(() -> {
+                    StaffChangeCursor after = StaffChangeCursor.decode(cursor);
+                    if (after != StaffChangeCursor.START && after.at().isBefore(Instant.now().minus(tombstoneRetention))) {
+                        throw new GoneException("Cursor is older than the " + tombstoneRetention.toDays() + " day delete history, resync from the start");
+                    }
+                    return after;
+                })
+                .flatMap(after -> {
+                    Instant upTo = Instant.now().minus(settleTime);
+                    return Mono.zip(
+                                    operationTimer.time(DB_TIMER, "findChanged", staffReadRepository.findChangedAfter(after.at(), after.id(), upTo, pageSize).collectList()),
+                                    operationTimer.time(DB_TIMER, "findTombstones", tombstoneRepository.findAfter(after.at(), after.id(), upTo, pageSize).collectList()))
+                            .map(found -> page(after, upTo, found.getT1(), found.getT2(), pageSize));
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${smart_city.staff.changes.purge-interval:PT1H}")
+    public Mono<Void> purgeTombstones() {
+        return Mono.defer(() -> tombstoneRepository.purgeBefore(Instant.now().minus(tombstoneRetention)))
+                .doOnNext(purged -> {
+                    if (purged > 0) {
+                        log.info("Purged {} staff tombstones older than {}", purged, tombstoneRetention);
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * An empty page still moves the cursor up to the settled point, so a client that polls a quiet feed
+     * keeps a fresh cursor instead of one that ages past the delete history.
+     */
+    private static StaffChangePage page(StaffChangeCursor after, Instant upTo, List<StaffRow> upserted, List<StaffTombstone> deleted, int pageSize) {
+        List<StaffChange> changes = new ArrayList<>(upserted.size() + deleted.size());
+        upserted.forEach(row -> changes.add(StaffChange.upserted(row)));
+        deleted.forEach(tombstone -> changes.add(StaffChange.deleted(tombstone)));
+        changes.sort(ORDER);
+        List<StaffChange> page = changes.size() > pageSize ? changes.subList(0, pageSize) : changes;
+        boolean hasMore = upserted.size() == pageSize || deleted.size() == pageSize;
+        StaffChangeCursor last = page.isEmpty()
+                ? (after.at().isBefore(upTo) ? new StaffChangeCursor(upTo, "") : after)
+                : page.getLast().cursor();
+        String next = last.encode();
+        return new StaffChangePage(List.copyOf(page), next, hasMore);
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartcity.staff.staff;
+
+import java.util.List;
+
+record StaffChangePage(List<StaffChange> changes, String next, boolean hasMore) {
+}
@@ -2,34 +2,126 @@ package com.smartcity.staff.staff;
 
 import com.smartcity.models.Staff;
 import com.smartcity.models.StaffRequest;
+import com.smartcity.staff.shared.exception.BadRequestException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequestMapping("/staff")
 @Slf4j
 @RequiredArgsConstructor
 public class StaffController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String TEXT_CSV_VALUE = "text/csv";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final Duration EVENTS_HEARTBEAT = Duration.ofSeconds(15);
     private final StaffService staffService;
+    private final StaffImportService staffImportService;
+    private final StaffChangeFeed staffChangeFeed;
 
+    /**
+     * The default for {@code GET /staff}: JSON, or Smile when asked for. Declares no {@code produces} so a
+     * request without a specific Accept header lands here rather than matching the NDJSON stream equally.
+     * Without {@code limit} or {@code next} it answers every matching staff member, as it always has;
+     * either one asks for a keyset page of at most {@link StaffService#MAX_PAGE_SIZE}.
+     */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public Flux<Staff> getAll() {
-        log.info("Fetching all staff");
-        return staffService.getAll();
+    public Mono<ResponseEntity<List<?>>> getAll(@RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String next,
+                                                @RequestParam(required = false) String cityId,
+                                                @RequestParam(required = false) String villageId,
+                                                @RequestParam(required = false) String department,
+                                                @RequestParam(required = false) Instant updatedAfter,
+                                                @RequestParam(required = false) Instant updatedBefore,
+                                                @RequestParam(required = false) String fields) {
+        StaffFilter filter = new StaffFilter(cityId, villageId, department, updatedAfter, updatedBefore);
+        if (limit == null && next == null) {
+            log.info("Fetching all staff");
+            return Mono.fromCallable(() -> StaffFields.parse(fields))
+                    .flatMap(projection -> staffService.getAll(filter, projection).collectList())
+                    .map(staff -> ResponseEntity.ok().<List<?>>body(staff));
+        }
+        log.info("Fetching staff page");
+        return Mono.fromCallable(() -> StaffFields.parse(fields))
+                .flatMap(projection -> staffService.getPage(next, pageSize(limit), filter, projection))
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.next() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.next());
+                    }
+                    return response.<List<?>>body(page.items());
+                });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public Flux<Object> stream(@RequestParam(required = false) String cityId,
+                               @RequestParam(required = false) String villageId,
+                               @RequestParam(required = false) String department,
+                               @RequestParam(required = false) Instant updatedAfter,
+                               @RequestParam(required = false) Instant updatedBefore,
+                               @RequestParam(required = false) String fields) {
+        log.info("Streaming all staff");
+        return Mono.fromCallable(() -> StaffFields.parse(fields))
+                .flatMapMany(projection -> staffService.getAll(new StaffFilter(cityId, villageId, department, updatedAfter, updatedBefore), projection));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('SYSTEM')")
+    public Flux<ServerSentEvent<StaffEvent>> events(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        log.info("Streaming staff events after {}", lastEventId);
+        Flux<ServerSentEvent<StaffEvent>> events = staffService.events(lastEventId)
+                .map(event -> ServerSentEvent.builder(event).id(event.id()).event(event.type().name()).build());
+        Flux<ServerSentEvent<StaffEvent>> heartbeats = Flux.interval(EVENTS_HEARTBEAT)
+                .map(tick -> ServerSentEvent.<StaffEvent>builder().comment("keepalive").build());
+        return Flux.merge(events, heartbeats);
+    }
+
+    @GetMapping("/changes")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('SYSTEM')")
+    public Mono<StaffChangePage> changes(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "500") int limit) {
+        log.info("Fetching staff changes after cursor {}", cursor);
+        return staffChangeFeed.getChanges(cursor, limit);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public Mono<StaffStats> stats() {
+        return staffService.stats();
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public Mono<List<StaffSearchHit>> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return staffService.search(q, limit);
     }
 
     @GetMapping("/me")
     @PreAuthorize("hasAuthority('STAFF') or hasAuthority('SYSTEM')")
-    public Mono<Staff> get() {
+    public Mono<ResponseEntity<Object>> get(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestParam(required = false) String fields) {
         log.info("Fetching staff details");
-        return staffService.get();
+        return Mono.fromCallable(() -> StaffFields.parse(fields))
+                .flatMap(projection -> staffService.get(ifNoneMatch, projection))
+                .map(versioned -> versioned.isNotModified()
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versioned.etag()).<Object>build()
+                        : ResponseEntity.ok().eTag(versioned.etag()).body(versioned.staff()));
     }
     @PostMapping
     @PreAuthorize("hasAuthority('SYSTEM')")
@@ -39,10 +131,27 @@ public class StaffController {
                 .map(id -> ResponseEntity.status(201).body(id));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('SYSTEM')")
+    public Flux<StaffImportResult> importNdjson(@RequestBody Flux<String> lines) {
+        log.info("Importing staff from NDJSON");
+        return staffImportService.importNdjson(lines);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('SYSTEM')")
+    public Flux<StaffImportResult> importCsv(@RequestBody Flux<String> lines) {
+        log.info("Importing staff from CSV");
+        return staffImportService.importCsv(lines);
+    }
+
     @PatchMapping
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('STAFF')")
-    public Mono<ResponseEntity<Void>> update(@RequestBody Staff staff) {
-        return staffService.update(staff).then(Mono.just(ResponseEntity.status(202).build()));
+    public Mono<ResponseEntity<Void>> update(@RequestBody Staff staff,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedEtag = StaffEtags.parseIfMatch(ifMatch);
+        return staffService.update(staff, expectedEtag)
+                .map(etag -> ResponseEntity.status(202).eTag(etag).<Void>build());
     }
 
     @DeleteMapping("/{id}")
@@ -50,4 +159,14 @@ public class StaffController {
     public Mono<Void> delete(@PathVariable String id) {
         return staffService.delete(id);
     }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("limit must be at least 1, was " + limit);
+        }
+        return Math.min(limit, StaffService.MAX_PAGE_SIZE);
+    }
 }
@@ -0,0 +1,61 @@
+package com.smartcity.staff.staff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses import lines of the form {@code id,name,email,department,cityId,villageId}. Fields may be
+ * double-quoted, with {@code ""} as an escaped quote; empty fields are read as null.
+ */
+final class StaffCsvParser {
+    static final String HEADER = "id,name,email,department,cityId,villageId";
+    private static final int COLUMNS = 6;
+
+    private StaffCsvParser() {
+    }
+
+    static boolean isHeader(String line) {
+        return line.strip().equalsIgnoreCase(HEADER);
+    }
+
+    static StaffImportRow parse(long lineNumber, String line) {
+        List<String> fields = split(line);
+        if (fields.size() != COLUMNS) {
+            return StaffImportRow.malformed(lineNumber, "Expected " + COLUMNS + " columns (" + HEADER + ") but found " + fields.size());
+        }
+        return new StaffImportRow(lineNumber, fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5));
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(value(field));
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(value(field));
+        return fields;
+    }
+
+    private static String value(StringBuilder field) {
+        String value = field.toString().strip();
+        return value.isEmpty() ? null : value;
+    }
+}
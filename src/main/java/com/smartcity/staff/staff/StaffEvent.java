@@ -0,0 +1,12 @@
+package com.smartcity.staff.staff;
+
+import java.time.Instant;
+
+record StaffEvent(String id, Type type, String staffId, Long etag, Instant updatedAt) {
+
+    enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
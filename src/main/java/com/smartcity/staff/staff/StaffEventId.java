@@ -0,0 +1,32 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.BadRequestException;
+
+import java.time.Instant;
+
+/**
+ * SSE event id {@code <updatedAtMillis>-<sequence>}: the sequence locates the event in this instance's
+ * replay buffer, the timestamp is where to resume from the database when the buffer no longer has it.
+ */
+record StaffEventId(long updatedAtMillis, long sequence) {
+
+    static String format(Instant updatedAt, long sequence) {
+        return updatedAt.toEpochMilli() + "-" + sequence;
+    }
+
+    static StaffEventId parse(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        int separator = id.indexOf('-');
+        try {
+            return new StaffEventId(Long.parseLong(id.substring(0, separator)), Long.parseLong(id.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid Last-Event-ID: " + id);
+        }
+    }
+
+    Instant updatedAt() {
+        return Instant.ofEpochMilli(updatedAtMillis);
+    }
+}
@@ -0,0 +1,110 @@
+package com.smartcity.staff.staff;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Fans staff mutations out to SSE subscribers. Each subscriber has its own queue of {@code subscriber-buffer}
+ * live events, so one slow reader never holds events for the others; when its queue overflows it is
+ * dropped and can resume with its last event id. The last {@code replay-size} events are kept for such
+ * resumes and replayed ahead of the queue, so they do not count against it.
+ */
+@Component
+class StaffEventPublisher {
+    private final int replaySize;
+    private final int subscriberBuffer;
+    private final ArrayDeque<Published> recent = new ArrayDeque<>();
+    private final Set<Sinks.Many<StaffEvent>> subscribers = new HashSet<>();
+    private final Counter dropped;
+    private long sequence;
+
+    StaffEventPublisher(MeterRegistry meterRegistry,
+                        @Value("${smart_city.staff.events.replay-size:1000}") int replaySize,
+                        @Value("${smart_city.staff.events.subscriber-buffer:256}") int subscriberBuffer) {
+        this.replaySize = replaySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.dropped = Counter.builder("staff.events.dropped.subscribers").register(meterRegistry);
+        Gauge.builder("staff.events.subscribers", this, StaffEventPublisher::subscriberCount).register(meterRegistry);
+    }
+
+    synchronized void publish(StaffEvent.Type type, String staffId, Long etag, Instant updatedAt) {
+        Instant at = updatedAt != null ? updatedAt : Instant.now();
+        StaffEvent event = new StaffEvent(StaffEventId.format(at, ++sequence), type, staffId, etag, at);
+        recent.addLast(new Published(sequence, event));
+        if (recent.size() > replaySize) {
+            recent.removeFirst();
+        }
+        for (Iterator<Sinks.Many<StaffEvent>> iterator = subscribers.iterator(); iterator.hasNext(); ) {
+            Sinks.Many<StaffEvent> subscriber = iterator.next();
+            Sinks.EmitResult result = subscriber.tryEmitNext(event);
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                iterator.remove();
+                subscriber.tryEmitError(new IllegalStateException("Staff event subscriber fell more than " + subscriberBuffer + " events behind"));
+                dropped.increment();
+            } else if (result.isFailure()) {
+                // the client went away and its cancel has not unsubscribed it yet
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Registers a subscriber that sees every event published from now on, preceded by the buffered events
+     * after {@code resumeFrom} when the buffer still holds it. {@link Feed#gapless()} is false when it
+     * does not, and the caller has to fill the gap itself.
+     */
+    synchronized Feed subscribe(StaffEventId resumeFrom) {
+        Sinks.Many<StaffEvent> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(new ArrayBlockingQueue<StaffEvent>(subscriberBuffer));
+        List<StaffEvent> missed = resumeFrom == null ? List.of() : replayAfter(resumeFrom);
+        subscribers.add(sink);
+        Flux<StaffEvent> events = Flux.concat(Flux.fromIterable(missed != null ? missed : List.<StaffEvent>of()), sink.asFlux())
+                .doFinally(signal -> unsubscribe(sink));
+        return new Feed(events, missed != null, () -> unsubscribe(sink));
+    }
+
+    /**
+     * The buffered events after {@code resumeFrom}, or {@code null} when it is no longer buffered.
+     */
+    private List<StaffEvent> replayAfter(StaffEventId resumeFrom) {
+        List<StaffEvent> missed = new ArrayList<>();
+        boolean found = false;
+        for (Published published : recent) {
+            if (found) {
+                missed.add(published.event());
+            } else if (published.sequence() == resumeFrom.sequence()
+                    && published.event().updatedAt().toEpochMilli() == resumeFrom.updatedAtMillis()) {
+                found = true;
+            }
+        }
+        return found ? missed : null;
+    }
+
+    private synchronized void unsubscribe(Sinks.Many<StaffEvent> sink) {
+        subscribers.remove(sink);
+    }
+
+    private synchronized int subscriberCount() {
+        return subscribers.size();
+    }
+
+    record Feed(Flux<StaffEvent> events, boolean gapless, Runnable cancel) {
+    }
+
+    private record Published(long sequence, StaffEvent event) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.models.Staff;
+import com.smartcity.staff.shared.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The staff properties a caller asked for with {@code fields=}, and the staff columns and replica joins
+ * needed to produce them. {@link #ALL} is the full {@link Staff} representation.
+ */
+final class StaffFields {
+    static final StaffFields ALL = new StaffFields(EnumSet.allOf(Field.class));
+
+    private final Set<Field> fields;
+
+    private StaffFields(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a comma-separated list of property names; {@code null} or blank means {@link #ALL}.
+     */
+    static StaffFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<Field> parsed = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.strip();
+            if (!trimmed.isEmpty()) {
+                parsed.add(Field.named(trimmed));
+            }
+        }
+        return parsed.isEmpty() || parsed.size() == Field.values().length ? ALL : new StaffFields(parsed);
+    }
+
+    boolean isAll() {
+        return this == ALL;
+    }
+
+    boolean includesCity() {
+        return fields.contains(Field.CITY);
+    }
+
+    boolean includesVillage() {
+        return fields.contains(Field.VILLAGE);
+    }
+
+    /**
+     * The staff columns to select, always including the id the page cursor is built from.
+     */
+    String columns(String alias) {
+        return Arrays.stream(Field.values())
+                .filter(field -> field == Field.ID || fields.contains(field))
+                .map(field -> alias + "." + field.column)
+                .collect(Collectors.joining(", "));
+    }
+
+    Map<String, Object> project(Staff staff) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (Field field : fields) {
+            projected.put(field.property, field.value.apply(staff));
+        }
+        return projected;
+    }
+
+    @Override
+    public String toString() {
+        return fields.stream().map(field -> field.property).collect(Collectors.joining(","));
+    }
+
+    private enum Field {
+        ID("id", "id", Staff::getId),
+        NAME("name", "name", Staff::getName),
+        EMAIL("email", "email", Staff::getEmail),
+        DEPARTMENT("department", "department", Staff::getDepartment),
+        CITY("city", "city_id", Staff::getCity),
+        VILLAGE("village", "village_id", Staff::getVillage);
+
+        private final String property;
+        private final String column;
+        private final Function<Staff, Object> value;
+
+        Field(String property, String column, Function<Staff, Object> value) {
+            this.property = property;
+            this.column = column;
+            this.value = value;
+        }
+
+        static Field named(String property) {
+            for (Field field : values()) {
+                if (field.property.equals(property)) {
+                    return field;
+                }
+            }
+            throw new BadRequestException("Unknown staff field: " + property + ", expected any of "
+                    + Arrays.stream(values()).map(field -> field.property).collect(Collectors.joining(",")));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.smartcity.staff.staff;
+
+import java.time.Instant;
+import java.util.Map;
+
+record StaffFilter(String cityId, String villageId, String department, Instant updatedAfter, Instant updatedBefore) {
+    static final StaffFilter NONE = new StaffFilter(null, null, null, null, null);
+
+    String toSql(String alias, String after, Map<String, Object> binds) {
+        StringBuilder sql = new StringBuilder(alias).append(".id > :after");
+        binds.put("after", after);
+        if (cityId != null) {
+            sql.append(" AND ").append(alias).append(".city_id = :cityId");
+            binds.put("cityId", cityId);
+        }
+        if (villageId != null) {
+            sql.append(" AND ").append(alias).append(".village_id = :villageId");
+            binds.put("villageId", villageId);
+        }
+        if (department != null) {
+            sql.append(" AND ").append(alias).append(".department = :department");
+            binds.put("department", department);
+        }
+        if (updatedAfter != null) {
+            sql.append(" AND ").append(alias).append(".updated_at > :updatedAfter");
+            binds.put("updatedAfter", updatedAfter);
+        }
+        if (updatedBefore != null) {
+            sql.append(" AND ").append(alias).append(".updated_at <= :updatedBefore");
+            binds.put("updatedBefore", updatedBefore);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartcity.staff.staff;
+
+record StaffImportResult(long line, String id, Status status, String message) {
+
+    enum Status {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    static StaffImportResult created(StaffImportRow row) {
+        return new StaffImportResult(row.line(), row.id(), Status.CREATED, null);
+    }
+
+    static StaffImportResult rejected(StaffImportRow row, String message) {
+        return new StaffImportResult(row.line(), row.id(), Status.REJECTED, message);
+    }
+
+    static StaffImportResult failed(StaffImportRow row, String message) {
+        return new StaffImportResult(row.line(), row.id(), Status.FAILED, message);
+    }
+}
@@ -0,0 +1,50 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.models.StaffRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+record StaffImportRow(long line, String id, String name, String email, String department, String cityId, String villageId,
+                      String error) {
+
+    StaffImportRow(long line, String id, String name, String email, String department, String cityId, String villageId) {
+        this(line, id, name, email, department, cityId, villageId, null);
+    }
+
+    static StaffImportRow malformed(long line, String error) {
+        return new StaffImportRow(line, null, null, null, null, null, null, error);
+    }
+
+    static StaffImportRow of(long line, StaffRequest staffRequest) {
+        return new StaffImportRow(line,
+                toString(staffRequest.getId()),
+                staffRequest.getName(),
+                staffRequest.getEmail(),
+                staffRequest.getDepartment(),
+                toString(staffRequest.getCityId()),
+                toString(staffRequest.getVillageId()));
+    }
+
+    /**
+     * The row as {@link StaffRequest} JSON properties, for reading it back into one.
+     */
+    Map<String, Object> toRequestFields() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("id", id);
+        fields.put("name", name);
+        fields.put("email", email);
+        fields.put("department", department);
+        fields.put("cityId", cityId);
+        fields.put("villageId", villageId);
+        return fields;
+    }
+
+    StaffEntity toEntity() {
+        return StaffEntity.builder().id(id).name(name).email(email).department(department).cityId(cityId).villageId(villageId).build();
+    }
+
+    private static String toString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,255 @@
+package com.smartcity.staff.staff;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.models.City;
+import com.smartcity.models.StaffRequest;
+import com.smartcity.models.Village;
+import com.smartcity.staff.location.LocationDirectory;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports staff in chunks: each chunk resolves its distinct cities and villages once, checks id and
+ * email conflicts with one query and writes the accepted rows with a single multi-row insert in its
+ * own transaction. Chunks run one at a time, so memory is bounded by the chunk size. Every row gets a
+ * result: rows failing the same bean validation as {@code POST /staff}, and the rows of a chunk whose
+ * lookups or insert fail, are reported as FAILED and the import carries on with the next chunk.
+ */
+@Service
+@Slf4j
+class StaffImportService {
+    private static final String INSERT_PREFIX = "INSERT INTO staff (id, name, email, department, city_id, village_id, created_at, updated_at, etag) VALUES ";
+
+    private final StaffRepository staffRepository;
+    private final DatabaseClient databaseClient;
+    private final LocationDirectory locationDirectory;
+    private final TransactionalOperator transactionalOperator;
+    private final OperationTimer operationTimer;
+    private final StaffSearchIndex searchIndex;
+    private final StaffEventPublisher eventPublisher;
+    private final StaffStatsAggregate statsAggregate;
+    private final RecentStaffWrites recentWrites;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    StaffImportService(StaffRepository staffRepository, R2dbcEntityTemplate r2dbcEntityTemplate, LocationDirectory locationDirectory,
+                       TransactionalOperator transactionalOperator, OperationTimer operationTimer, StaffSearchIndex searchIndex,
+                       StaffEventPublisher eventPublisher, StaffStatsAggregate statsAggregate, RecentStaffWrites recentWrites,
+                       Validator validator, ObjectMapper objectMapper,
+                       @Value("${smart_city.staff.import.chunk-size:500}") int chunkSize) {
+        this.staffRepository = staffRepository;
+        this.databaseClient = r2dbcEntityTemplate.getDatabaseClient();
+        this.locationDirectory = locationDirectory;
+        this.transactionalOperator = transactionalOperator;
+        this.operationTimer = operationTimer;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.statsAggregate = statsAggregate;
+        this.recentWrites = recentWrites;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * One {@link StaffRequest} JSON document per line; a line that does not parse is rejected on its own.
+     */
+    Flux<StaffImportResult> importNdjson(Flux<String> lines) {
+        return importStaff(lines.index()
+                .filter(indexed -> !indexed.getT2().isBlank())
+                .map(indexed -> parseJson(indexed.getT1() + 1, indexed.getT2())));
+    }
+
+    Flux<StaffImportResult> importCsv(Flux<String> lines) {
+        return importStaff(lines.index()
+                .filter(indexed -> !indexed.getT2().isBlank() && !StaffCsvParser.isHeader(indexed.getT2()))
+                .map(indexed -> StaffCsvParser.parse(indexed.getT1() + 1, indexed.getT2())));
+    }
+
+    Flux<StaffImportResult> importStaff(Flux<StaffImportRow> rows) {
+        return rows.buffer(chunkSize)
+                .concatMap(this::importChunk, 1);
+    }
+
+    private Flux<StaffImportResult> importChunk(List<StaffImportRow> chunk) {
+        Map<StaffImportRow, StaffImportResult> results = new LinkedHashMap<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        List<StaffImportRow> candidates = new ArrayList<>();
+        for (StaffImportRow row : chunk) {
+            String problem = validate(row);
+            String violations = problem == null ? violations(row) : null;
+            if (violations != null) {
+                results.put(row, StaffImportResult.failed(row, violations));
+                continue;
+            }
+            if (problem == null && !ids.add(row.id())) {
+                problem = "Duplicate id in upload: " + row.id();
+            } else if (problem == null && !emails.add(row.email())) {
+                problem = "Duplicate email in upload: " + row.email();
+            }
+            results.put(row, problem == null ? null : StaffImportResult.rejected(row, problem));
+            if (problem == null) {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Flux.fromIterable(results.values());
+        }
+        Set<String> cityIds = distinct(candidates, StaffImportRow::cityId);
+        Set<String> villageIds = distinct(candidates, StaffImportRow::villageId);
+        Mono<Map<String, City>> cities = Mono.defer(() -> locationDirectory.getCitiesByIds(cityIds));
+        Mono<Map<String, Village>> villages = villageIds.isEmpty() ? Mono.just(Map.of()) : Mono.defer(() -> locationDirectory.getVillagesByIds(villageIds));
+        Mono<List<StaffEntity>> conflicts = operationTimer.time("staff.db", "findConflicts", Flux.defer(() -> staffRepository.findConflicts(ids, emails)).collectList());
+        return Mono.zip(cities, villages, conflicts)
+                .flatMap(resolved -> {
+                    Set<String> takenIds = resolved.getT3().stream().map(StaffEntity::getId).collect(Collectors.toSet());
+                    Set<String> takenEmails = resolved.getT3().stream().map(StaffEntity::getEmail).collect(Collectors.toSet());
+                    List<StaffImportRow> accepted = new ArrayList<>();
+                    for (StaffImportRow row : candidates) {
+                        String problem = null;
+                        if (!resolved.getT1().containsKey(row.cityId())) {
+                            problem = "City not found with id: " + row.cityId();
+                        } else if (row.villageId() != null && !resolved.getT2().containsKey(row.villageId())) {
+                            problem = "Village not found with id: " + row.villageId();
+                        } else if (takenIds.contains(row.id())) {
+                            problem = "Staff with id: " + row.id() + " already exists";
+                        } else if (takenEmails.contains(row.email())) {
+                            problem = "Staff with email: " + row.email() + " already exists";
+                        }
+                        if (problem == null) {
+                            accepted.add(row);
+                        } else {
+                            results.put(row, StaffImportResult.rejected(row, problem));
+                        }
+                    }
+                    Instant insertedAt = Instant.now();
+                    return insert(accepted, insertedAt)
+                            .doOnSuccess(ignored -> accepted.forEach(row -> {
+                                results.put(row, StaffImportResult.created(row));
+                                StaffEntity created = row.toEntity();
+                                recentWrites.written(created.getId(), 0L);
+                                searchIndex.put(created);
+                                statsAggregate.added(created);
+                                eventPublisher.publish(StaffEvent.Type.CREATED, row.id(), 0L, insertedAt);
+                            }))
+                            .onErrorResume(ex -> {
+                                log.error("Bulk insert of {} staff failed: {}", accepted.size(), ex.getMessage());
+                                accepted.forEach(row -> results.put(row, StaffImportResult.failed(row, ex.getMessage())));
+                                return Mono.empty();
+                            })
+                            .then();
+                })
+                .onErrorResume(ex -> {
+                    log.error("Import chunk of {} staff failed: {}", candidates.size(), ex.getMessage());
+                    candidates.forEach(row -> results.computeIfAbsent(row, failed -> StaffImportResult.failed(failed, "Import failed: " + ex.getMessage())));
+                    return Mono.empty();
+                })
+                .thenMany(Flux.defer(() -> Flux.fromIterable(results.values())));
+    }
+
+    private StaffImportRow parseJson(long line, String json) {
+        try {
+            return StaffImportRow.of(line, objectMapper.readValue(json, StaffRequest.class));
+        } catch (JsonProcessingException e) {
+            return StaffImportRow.malformed(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * The bean validation {@code POST /staff} applies to its {@link StaffRequest}, run on the row read as
+     * one; {@code null} when the row passes.
+     */
+    private String violations(StaffImportRow row) {
+        StaffRequest request;
+        try {
+            request = objectMapper.convertValue(row.toRequestFields(), StaffRequest.class);
+        } catch (IllegalArgumentException e) {
+            return "Invalid row: " + e.getMessage().lines().findFirst().orElse("");
+        }
+        Set<ConstraintViolation<StaffRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Mono<Long> insert(List<StaffImportRow> rows, Instant insertedAt) {
+        if (rows.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(i).append(", :name").append(i).append(", :email").append(i)
+                    .append(", :department").append(i).append(", :city").append(i).append(", :village").append(i)
+                    .append(", :now, :now, 0)");
+        }
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql.toString()).bind("now", insertedAt);
+        for (int i = 0; i < rows.size(); i++) {
+            StaffImportRow row = rows.get(i);
+            statement = bind(statement, "id" + i, row.id());
+            statement = bind(statement, "name" + i, row.name());
+            statement = bind(statement, "email" + i, row.email());
+            statement = bind(statement, "department" + i, row.department());
+            statement = bind(statement, "city" + i, row.cityId());
+            statement = bind(statement, "village" + i, row.villageId());
+        }
+        return operationTimer.time("staff.db", "insertBatch", statement.fetch().rowsUpdated())
+                .as(transactionalOperator::transactional);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec statement, String name, String value) {
+        return value == null ? statement.bindNull(name, String.class) : statement.bind(name, value);
+    }
+
+    private static String validate(StaffImportRow row) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        if (row.id() == null) {
+            return "id is required";
+        }
+        if (row.email() == null) {
+            return "email is required";
+        }
+        if (row.department() == null) {
+            return "department is required";
+        }
+        if (row.cityId() == null) {
+            return "City is required";
+        }
+        return null;
+    }
+
+    private static Set<String> distinct(List<StaffImportRow> rows, Function<StaffImportRow, String> id) {
+        return rows.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+}
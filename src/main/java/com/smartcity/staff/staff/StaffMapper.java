@@ -8,6 +8,8 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
+import java.util.Map;
+
 @Mapper(componentModel = "spring")
 public interface StaffMapper {
     public static StaffMapper INSTANCE = Mappers.getMapper(StaffMapper.class);
@@ -22,4 +24,12 @@ public interface StaffMapper {
     @Mapping(source = "city.id", target = "city.id")
     @Mapping(source = "city.name", target = "city.name")
     Staff toModel(StaffEntity staffEntity, Village village, City city);
+
+    /**
+     * Only the requested properties, keyed by their JSON names. Properties that were not requested may be
+     * missing from {@code staffEntity}, {@code village} and {@code city}.
+     */
+    default Map<String, Object> toModel(StaffEntity staffEntity, Village village, City city, StaffFields fields) {
+        return fields.project(toModel(staffEntity, village, city));
+    }
 }
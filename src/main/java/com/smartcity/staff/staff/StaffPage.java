@@ -0,0 +1,9 @@
+package com.smartcity.staff.staff;
+
+import java.util.List;
+
+/**
+ * One page of full {@link com.smartcity.models.Staff} or {@code fields=} projections of them.
+ */
+record StaffPage(List<?> items, String next) {
+}
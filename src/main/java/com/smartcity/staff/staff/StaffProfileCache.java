@@ -0,0 +1,56 @@
+package com.smartcity.staff.staff;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Staff profiles (with their city and village replica versions) by id, in front of {@code GET /staff/me}.
+ * Concurrent misses for an id share one load. This instance's writes invalidate an entry unless it already
+ * holds the written etag or a newer one; the TTL bounds how stale writes made elsewhere, and replica
+ * changes to the staff's city or village, can be.
+ */
+@Component
+class StaffProfileCache {
+    private final AsyncCache<String, StaffRow> cache;
+
+    StaffProfileCache(MeterRegistry meterRegistry,
+                      @Value("${smart_city.staff.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${smart_city.staff.cache.ttl:PT1M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "staff.profiles");
+    }
+
+    Mono<StaffRow> get(String id, Function<String, Mono<StaffRow>> loader) {
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /**
+     * Drops the entry for {@code id} after a write, keeping it only when it is already at
+     * {@code writtenEtag} or later. A {@code null} etag (the new version is unknown) always drops it.
+     * A load still in flight is dropped too, so a read that raced the write is never cached.
+     */
+    void invalidate(String id, Long writtenEtag) {
+        cache.asMap().computeIfPresent(id, (key, entry) -> isAtLeast(entry, writtenEtag) ? entry : null);
+    }
+
+    private static boolean isAtLeast(CompletableFuture<StaffRow> entry, Long writtenEtag) {
+        if (writtenEtag == null || !entry.isDone() || entry.isCompletedExceptionally()) {
+            return false;
+        }
+        StaffRow row = entry.join();
+        return row != null && row.staff().getEtag() != null && row.staff().getEtag() >= writtenEtag;
+    }
+}
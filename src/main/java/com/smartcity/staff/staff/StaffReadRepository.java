@@ -0,0 +1,163 @@
+package com.smartcity.staff.staff;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcity.models.City;
+import com.smartcity.models.Village;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads staff joined with the local city/village replica, so a listing or profile is one query and
+ * never calls the location-service.
+ */
+@Repository
+class StaffReadRepository {
+    private static final String SELECT_JOINED = "SELECT s.*, c.payload AS city_payload, c.version AS city_version, "
+            + "v.payload AS village_payload, v.version AS village_version FROM staff s "
+            + "LEFT JOIN city c ON c.id = s.city_id LEFT JOIN village v ON v.id = s.village_id";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+    private final ObjectMapper objectMapper;
+
+    StaffReadRepository(DatabaseClient databaseClient, R2dbcConverter converter, ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.converter = converter;
+        this.objectMapper = objectMapper;
+    }
+
+    Flux<StaffRow> findAll(StaffFilter filter, String after, Integer limit) {
+        return findAll(filter, after, limit, StaffFields.ALL);
+    }
+
+    /**
+     * Like {@link #findAll(StaffFilter, String, Integer)} but selecting only the columns {@code fields}
+     * needs and joining the city or village replica only when it was asked for; the other properties of
+     * the returned rows are {@code null}.
+     */
+    Flux<StaffRow> findAll(StaffFilter filter, String after, Integer limit, StaffFields fields) {
+        Map<String, Object> binds = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder(select(fields)).append(" WHERE ").append(filter.toSql("s", after, binds))
+                .append(" ORDER BY s.id");
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+            binds.put("limit", limit);
+        }
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql.toString());
+        for (Map.Entry<String, Object> bind : binds.entrySet()) {
+            statement = statement.bind(bind.getKey(), bind.getValue());
+        }
+        return statement.map((row, metadata) -> toRow(row, metadata, fields)).all();
+    }
+
+    Flux<StaffRow> findChangedAfter(Instant at, String id, Instant upTo, int limit) {
+        return databaseClient.sql(SELECT_JOINED + " WHERE s.updated_at >= :at AND (s.updated_at > :at OR s.id > :id) AND s.updated_at <= :upTo"
+                        + " ORDER BY s.updated_at, s.id LIMIT :limit")
+                .bind("at", at)
+                .bind("id", id)
+                .bind("upTo", upTo)
+                .bind("limit", limit)
+                .map(this::toRow)
+                .all();
+    }
+
+    Mono<StaffRow> findById(String id) {
+        return databaseClient.sql(SELECT_JOINED + " WHERE s.id = :id")
+                .bind("id", id)
+                .map(this::toRow)
+                .one();
+    }
+
+    /**
+     * The versions the row's etag is built from, without reading its payload or its city and village.
+     */
+    Mono<Versions> findVersionsById(String id) {
+        return databaseClient.sql("SELECT s.etag, c.version AS city_version, v.version AS village_version FROM staff s "
+                        + "LEFT JOIN city c ON c.id = s.city_id LEFT JOIN village v ON v.id = s.village_id WHERE s.id = :id")
+                .bind("id", id)
+                .map(row -> new Versions(version(row, "etag"), version(row, "city_version"), version(row, "village_version")))
+                .one();
+    }
+
+    /**
+     * Staff counted per distinct (department, city, village), which every per-dimension count can be
+     * summed from. One statement, so the totals are from a single consistent read.
+     */
+    Flux<GroupCount> countGrouped() {
+        return databaseClient.sql("SELECT department, city_id, village_id, COUNT(*) AS staff FROM staff GROUP BY department, city_id, village_id")
+                .map(row -> new GroupCount(row.get("department", String.class), row.get("city_id", String.class),
+                        row.get("village_id", String.class), row.get("staff", Long.class)))
+                .all();
+    }
+
+    private static String select(StaffFields fields) {
+        if (fields.isAll()) {
+            return SELECT_JOINED;
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(fields.columns("s"));
+        if (fields.includesCity()) {
+            sql.append(", c.payload AS city_payload, c.version AS city_version");
+        }
+        if (fields.includesVillage()) {
+            sql.append(", v.payload AS village_payload, v.version AS village_version");
+        }
+        sql.append(" FROM staff s");
+        if (fields.includesCity()) {
+            sql.append(" LEFT JOIN city c ON c.id = s.city_id");
+        }
+        if (fields.includesVillage()) {
+            sql.append(" LEFT JOIN village v ON v.id = s.village_id");
+        }
+        return sql.toString();
+    }
+
+    private StaffRow toRow(Row row, RowMetadata metadata) {
+        return toRow(row, metadata, StaffFields.ALL);
+    }
+
+    private StaffRow toRow(Row row, RowMetadata metadata, StaffFields fields) {
+        boolean city = fields.includesCity();
+        boolean village = fields.includesVillage();
+        return toRow(converter.read(StaffEntity.class, row, metadata),
+                city ? row.get("city_payload", String.class) : null, city ? version(row, "city_version") : 0,
+                village ? row.get("village_payload", String.class) : null, village ? version(row, "village_version") : 0);
+    }
+
+    StaffRow toRow(StaffEntity staffEntity, String cityPayload, long cityVersion, String villagePayload, long villageVersion) {
+        return new StaffRow(staffEntity,
+                fromJson(cityPayload, City.class), cityVersion,
+                fromJson(villagePayload, Village.class), villageVersion);
+    }
+
+    private <T> T fromJson(String payload, Class<T> type) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt " + type.getSimpleName() + " replica payload", e);
+        }
+    }
+
+    private static long version(Row row, String column) {
+        Long version = row.get(column, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    record GroupCount(String department, String cityId, String villageId, long count) {
+    }
+
+    record Versions(long staff, long city, long village) {
+    }
+}
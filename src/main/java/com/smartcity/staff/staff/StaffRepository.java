@@ -1,13 +1,19 @@
 package com.smartcity.staff.staff;
 
 import jakarta.validation.constraints.Size;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface StaffRepository extends ReactiveCrudRepository<StaffEntity, String> {
     Mono<StaffEntity> findByEmail(String email);
+
+    @Query("SELECT * FROM staff WHERE id IN (:ids) OR email IN (:emails)")
+    Flux<StaffEntity> findConflicts(Collection<String> ids, Collection<String> emails);
 }
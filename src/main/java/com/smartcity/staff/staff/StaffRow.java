@@ -0,0 +1,30 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.models.City;
+import com.smartcity.models.Staff;
+import com.smartcity.models.Village;
+
+record StaffRow(StaffEntity staff, City city, long cityVersion, Village village, long villageVersion) {
+
+    Staff toModel() {
+        return StaffMapper.INSTANCE.toModel(staff,
+                village == null ? new Village() : village,
+                city == null ? new City() : city);
+    }
+
+    /**
+     * The full {@link Staff} for {@link StaffFields#ALL}, otherwise just the requested properties.
+     */
+    Object toModel(StaffFields fields) {
+        if (fields.isAll()) {
+            return toModel();
+        }
+        return StaffMapper.INSTANCE.toModel(staff,
+                village == null ? new Village() : village,
+                city == null ? new City() : city, fields);
+    }
+
+    String etag() {
+        return StaffEtags.of(staff.getEtag(), cityVersion, villageVersion);
+    }
+}
@@ -0,0 +1,4 @@
+package com.smartcity.staff.staff;
+
+record StaffSearchHit(String id, String name, String email, String department, double score) {
+}
@@ -0,0 +1,302 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.ServiceUnavailableException;
+import com.smartcity.staff.shared.r2dbc.ReadReplicas;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Type-ahead index over staff name, email and department. Every word of those fields (and the whole
+ * email) is a token in a sorted map, so a query term is answered by a prefix range scan; all terms of
+ * a query must match. Writes are serialised and rare, reads are lock-free.
+ * <p>
+ * The index is local to the instance: it is loaded on startup, kept current by this instance's writes
+ * and reloaded periodically to pick up writes made elsewhere. Deletes leave a tombstone until the end of
+ * the next reload, so a reload that read the row before it was deleted (or from a lagging replica) does
+ * not bring it back.
+ */
+@Component
+@Slf4j
+class StaffSearchIndex {
+    static final int MAX_LIMIT = 50;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<StaffSearchHit> RANKING = Comparator.comparingDouble(StaffSearchHit::score).reversed()
+            .thenComparingInt(hit -> hit.name() == null ? Integer.MAX_VALUE : hit.name().length())
+            .thenComparing(StaffSearchHit::id);
+
+    private final StaffRepository staffRepository;
+    private final int candidatesPerHit;
+    private final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Long> tombstones = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+    private final AtomicLong postingCount = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean ready;
+
+    StaffSearchIndex(StaffRepository staffRepository, MeterRegistry meterRegistry,
+                     @Value("${smart_city.staff.search.candidates-per-hit:50}") int candidatesPerHit) {
+        this.staffRepository = staffRepository;
+        this.candidatesPerHit = candidatesPerHit;
+        Gauge.builder("staff.search.index.documents", documents, Map::size).register(meterRegistry);
+        Gauge.builder("staff.search.index.postings", postingCount, AtomicLong::get).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        rebuild().subscribe(null, ex -> log.error("Building staff search index failed: {}", ex.getMessage()));
+    }
+
+    /**
+     * Upserts every row that has no tombstone, then drops documents that were neither in the scan nor
+     * written while it ran, and the tombstones of deletes made before it started.
+     */
+    @Scheduled(fixedDelayString = "${smart_city.staff.search.rebuild-interval:PT10M}",
+            initialDelayString = "${smart_city.staff.search.rebuild-interval:PT10M}")
+    public Mono<Void> rebuild() {
+        return Mono.defer(() -> {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            long startedAt = System.nanoTime();
+            long stampAtStart = stamps.get();
+            return ReadReplicas.read(staffRepository.findAll())
+                    .doOnNext(this::putScanned)
+                    .count()
+                    .doOnNext(count -> {
+                        documents.values().stream()
+                                .filter(document -> document.stamp() <= stampAtStart)
+                                .map(Document::id)
+                                .toList()
+                                .forEach(this::unindex);
+                        tombstones.values().removeIf(stamp -> stamp <= stampAtStart);
+                        ready = true;
+                        log.info("Indexed {} staff for search in {} ms", count, (System.nanoTime() - startedAt) / 1_000_000);
+                    })
+                    .doFinally(signal -> rebuilding.set(false))
+                    .then();
+        });
+    }
+
+    /**
+     * Scores the documents matching the longest term's prefix, whole-word matches first and then in token
+     * order, and keeps the best {@code limit}. At most {@code candidates-per-hit} times {@code limit}
+     * documents are scored, so a one- or two-letter prefix costs the same as a longer one; it ranks a
+     * slice of its matches, which narrows to all of them as the user keeps typing.
+     */
+    List<StaffSearchHit> search(String query, int limit) {
+        if (!ready) {
+            throw new ServiceUnavailableException("Staff search index is still loading", null);
+        }
+        List<String> terms = List.copyOf(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String lead = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        int maxCandidates = limit * candidatesPerHit;
+        PriorityQueue<StaffSearchHit> top = new PriorityQueue<>(RANKING.reversed());
+        Set<String> seen = new HashSet<>();
+        scan:
+        for (Set<String> ids : postings.subMap(lead, true, lead + Character.MAX_VALUE, true).values()) {
+            for (String id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                Document document = documents.get(id);
+                double score = document == null ? 0 : document.score(terms);
+                if (score > 0 && (top.size() < limit || document.outranks(score, top.peek()))) {
+                    top.offer(document.hit(score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+                if (seen.size() >= maxCandidates) {
+                    break scan;
+                }
+            }
+        }
+        List<StaffSearchHit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    void put(StaffEntity staffEntity) {
+        tombstones.remove(staffEntity.getId());
+        put(staffEntity.getId(), staffEntity.getName(), staffEntity.getEmail(), staffEntity.getDepartment());
+    }
+
+    private synchronized void putScanned(StaffEntity staffEntity) {
+        if (!tombstones.containsKey(staffEntity.getId())) {
+            put(staffEntity.getId(), staffEntity.getName(), staffEntity.getEmail(), staffEntity.getDepartment());
+        }
+    }
+
+    /**
+     * Applies a partial update; {@code null} fields keep their indexed value. Ignored for staff the index
+     * has not seen yet, the next rebuild picks them up. Synchronised with {@link #remove(String)} so an
+     * update racing a delete cannot index the deleted staff again. Returns the department it was indexed
+     * under before ({@code ""} for none), or {@code null} when the index did not have it.
+     */
+    synchronized String update(String id, String name, String email, String department) {
+        Document current = documents.get(id);
+        if (current == null) {
+            return null;
+        }
+        put(id, name != null ? name : current.name(), email != null ? email : current.email(),
+                department != null ? department : current.department());
+        return Objects.requireNonNullElse(current.department(), "");
+    }
+
+    /**
+     * Drops the staff from the index. Returns the department it was indexed under ({@code ""} for none),
+     * or {@code null} when the index did not have it.
+     */
+    synchronized String remove(String id) {
+        tombstones.put(id, stamps.incrementAndGet());
+        Document removed = unindex(id);
+        return removed == null ? null : Objects.requireNonNullElse(removed.department(), "");
+    }
+
+    private synchronized Document unindex(String id) {
+        Document removed = documents.remove(id);
+        if (removed != null) {
+            removed.tokens().forEach(token -> unlink(token, id));
+        }
+        return removed;
+    }
+
+    private synchronized void put(String id, String name, String email, String department) {
+        Document document = new Document(id, name, email, department, stamps.incrementAndGet());
+        Document previous = documents.put(id, document);
+        if (previous != null) {
+            previous.tokens().stream().filter(token -> !document.tokens().contains(token)).forEach(token -> unlink(token, id));
+        }
+        for (String token : document.tokens()) {
+            if (postings.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(id)) {
+                postingCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void unlink(String token, String id) {
+        Set<String> ids = postings.get(token);
+        if (ids != null && ids.remove(id)) {
+            postingCount.decrementAndGet();
+            if (ids.isEmpty()) {
+                postings.remove(token, ids);
+            }
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text != null) {
+            for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private record Document(String id, String name, String email, String department, long stamp,
+                            Set<String> nameTokens, Set<String> emailTokens, Set<String> departmentTokens, Set<String> tokens) {
+
+        Document(String id, String name, String email, String department, long stamp) {
+            this(id, name, email, department, stamp, tokenize(name), emailTokens(email), tokenize(department));
+        }
+
+        private Document(String id, String name, String email, String department, long stamp,
+                         Set<String> nameTokens, Set<String> emailTokens, Set<String> departmentTokens) {
+            this(id, name, email, department, stamp, nameTokens, emailTokens, departmentTokens,
+                    union(nameTokens, emailTokens, departmentTokens));
+        }
+
+        /**
+         * Sum over terms of the best field match: name before email before department, whole-word before
+         * prefix. Zero when any term matches nothing.
+         */
+        double score(List<String> terms) {
+            double total = 0;
+            for (String term : terms) {
+                double best = Math.max(match(nameTokens, term, 4, 3),
+                        Math.max(match(emailTokens, term, 2.5, 2), match(departmentTokens, term, 1.5, 1)));
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        StaffSearchHit hit(double score) {
+            return new StaffSearchHit(id, name, email, department, score);
+        }
+
+        /**
+         * Whether this document at {@code score} ranks above {@code hit}, by {@link #RANKING} but without
+         * allocating a hit for it.
+         */
+        boolean outranks(double score, StaffSearchHit hit) {
+            if (score != hit.score()) {
+                return score > hit.score();
+            }
+            int length = name == null ? Integer.MAX_VALUE : name.length();
+            int hitLength = hit.name() == null ? Integer.MAX_VALUE : hit.name().length();
+            return length != hitLength ? length < hitLength : id.compareTo(hit.id()) < 0;
+        }
+
+        private static double match(Set<String> tokens, String term, double exact, double prefix) {
+            if (tokens.contains(term)) {
+                return exact;
+            }
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    return prefix;
+                }
+            }
+            return 0;
+        }
+
+        private static Set<String> emailTokens(String email) {
+            Set<String> tokens = tokenize(email);
+            if (email != null) {
+                tokens.add(email.toLowerCase(Locale.ROOT));
+            }
+            return tokens;
+        }
+
+        @SafeVarargs
+        private static Set<String> union(Set<String>... sets) {
+            Set<String> union = new HashSet<>();
+            for (Set<String> set : sets) {
+                union.addAll(set);
+            }
+            return union;
+        }
+    }
+}
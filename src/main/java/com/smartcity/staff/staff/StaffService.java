@@ -4,131 +4,327 @@ import com.smartcity.models.City;
 import com.smartcity.models.Staff;
 import com.smartcity.models.Village;
 import com.smartcity.models.StaffRequest;
+import com.smartcity.staff.location.LocationDirectory;
+import com.smartcity.staff.shared.exception.PreconditionFailedException;
+import com.smartcity.staff.shared.exception.ConflictException;
+import com.smartcity.staff.shared.exception.GoneException;
 import com.smartcity.staff.shared.exception.ResourceNotFoundException;
-import com.smartcity.staff.shared.jwt.JwtToken;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import com.smartcity.staff.shared.r2dbc.ReadReplicas;
 import com.smartcity.staff.shared.uils.UpdateHelper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.env.Environment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Objects;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
 public class StaffService {
+    static final int MAX_PAGE_SIZE = 1000;
+    private static final String DB_TIMER = "staff.db";
+    private static final Comparator<StaffEvent> CATCH_UP_ORDER = Comparator.comparing(StaffEvent::updatedAt).thenComparing(StaffEvent::staffId);
     private final StaffRepository staffRepository;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
-    private final WebClient webClient;
+    private final LocationDirectory locationDirectory;
+    private final StaffReadRepository staffReadRepository;
+    private final OperationTimer operationTimer;
+    private final StaffSearchIndex searchIndex;
+    private final StaffEventPublisher eventPublisher;
+    private final StaffTombstoneRepository tombstoneRepository;
+    private final StaffStatsAggregate statsAggregate;
+    private final StaffProfileCache profileCache;
+    private final RecentStaffWrites recentWrites;
+    private final int maxCatchUp;
 
-    public StaffService(WebClient.Builder webClientBuilder, StaffRepository staffRepository, R2dbcEntityTemplate r2dbcEntityTemplate, PasswordEncoder passwordEncoder,Environment environment) {
-        this.webClient = webClientBuilder.baseUrl(Objects.requireNonNull(environment.getProperty("smart_city.services.location-service.url"))).build();
+    public StaffService(LocationDirectory locationDirectory, StaffReadRepository staffReadRepository, StaffRepository staffRepository, R2dbcEntityTemplate r2dbcEntityTemplate, OperationTimer operationTimer, StaffSearchIndex searchIndex, StaffEventPublisher eventPublisher, StaffTombstoneRepository tombstoneRepository, StaffStatsAggregate statsAggregate, StaffProfileCache profileCache, RecentStaffWrites recentWrites,
+                        @Value("${smart_city.staff.events.max-catch-up:1000}") int maxCatchUp) {
+        this.locationDirectory = locationDirectory;
+        this.staffReadRepository = staffReadRepository;
         this.staffRepository = staffRepository;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.operationTimer = operationTimer;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.tombstoneRepository = tombstoneRepository;
+        this.statsAggregate = statsAggregate;
+        this.profileCache = profileCache;
+        this.recentWrites = recentWrites;
+        this.maxCatchUp = maxCatchUp;
     }
 
     private Mono<Village> getVillageById(String id) {
-        return getAuth().flatMap(token ->
-                webClient.get().uri("/villages/{id}", id)
-                        .headers(httpHeaders -> httpHeaders.setBearerAuth(token))
-                        .retrieve()
-                        .bodyToMono(Village.class));
-    }
-
-    private  Mono<String> getAuth() {
-        return ReactiveSecurityContextHolder.getContext()
-                .map(SecurityContext::getAuthentication)
-                .flatMap(authentication -> Mono.just(authentication)
-                        .cast(JwtToken.class)
-                        .map(JwtToken::getToken)
-                        .switchIfEmpty(Mono.error(new RuntimeException("Invalid token."))));
+        return locationDirectory.getVillageById(id);
     }
 
     private Mono<City> getCityById(String id) {
-         return getAuth().flatMap(token ->
-                webClient.get().uri("/cities/{id}", id)
-                        .headers(httpHeaders -> httpHeaders.setBearerAuth(token))
-                        .retrieve()
-                        .bodyToMono(City.class));
+        return locationDirectory.getCityById(id);
     }
 
     public Flux<Staff> getAll() {
-        log.info("Fetching all staff");
-        return staffRepository.findAll()
-                .flatMap(this::getVillageAndCity);
+        return getAll(StaffFilter.NONE);
+    }
+
+    Flux<Staff> getAll(StaffFilter filter) {
+        log.info("Fetching all staff matching {}", filter);
+        return operationTimer.time(DB_TIMER, "findAll", ReadReplicas.read(staffReadRepository.findAll(filter, "", null)))
+                .map(StaffRow::toModel);
+    }
+
+    /**
+     * All matching staff with only {@code fields}; a full {@link Staff} each for {@link StaffFields#ALL}.
+     */
+    Flux<Object> getAll(StaffFilter filter, StaffFields fields) {
+        log.info("Fetching {} of all staff matching {}", fields, filter);
+        return operationTimer.time(DB_TIMER, "findAll", ReadReplicas.read(staffReadRepository.findAll(filter, "", null, fields)))
+                .map(row -> row.toModel(fields));
+    }
+
+    Mono<StaffPage> getPage(String cursor, int limit, StaffFilter filter) {
+        return getPage(cursor, limit, filter, StaffFields.ALL);
+    }
+
+    Mono<StaffPage> getPage(String cursor, int limit, StaffFilter filter, StaffFields fields) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return Mono.fromCallable(() -> StaffCursor.decode(cursor))
+                .flatMap(after -> operationTimer.time(DB_TIMER, "findPage", ReadReplicas.read(staffReadRepository.findAll(filter, after, pageSize, fields)).collectList()))
+                .map(rows -> new StaffPage(rows.stream().map(row -> row.toModel(fields)).toList(),
+                        rows.size() < pageSize ? null : StaffCursor.encode(rows.getLast().staff().getId())));
+    }
+
+    /**
+     * Live staff changes, resuming after {@code lastEventId}. When that event is no longer buffered the
+     * rows changed and the staff deleted since the start of its second are sent first, in time order, as
+     * UPDATED and DELETED events carrying the same id, so a client that disconnects during the catch-up
+     * repeats it rather than skipping part of it. Live events for a version the catch-up already sent are
+     * skipped. A gap of more than {@code max-catch-up} changes is answered with 410 Gone, and the client
+     * resyncs from the change feed instead.
+     */
+    Flux<StaffEvent> events(String lastEventId) {
+        return Flux.defer(() -> {
+            StaffEventId resumeFrom = StaffEventId.parse(lastEventId);
+            StaffEventPublisher.Feed feed = eventPublisher.subscribe(resumeFrom);
+            if (feed.gapless()) {
+                return feed.events();
+            }
+            log.info("Last-Event-ID {} is no longer buffered, catching up from the database", lastEventId);
+            // updated_at and deleted_at have second precision, so start from the whole second the last event was in
+            Instant from = resumeFrom.updatedAt().truncatedTo(ChronoUnit.SECONDS);
+            Instant upTo = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+            Set<String> caughtUp = ConcurrentHashMap.newKeySet();
+            Flux<StaffEvent> catchUp = Mono.zip(
+                            operationTimer.time(DB_TIMER, "findChanged", staffReadRepository.findChangedAfter(from, "", upTo, maxCatchUp + 1).collectList()),
+                            operationTimer.time(DB_TIMER, "findTombstones", tombstoneRepository.findAfter(from, "", upTo, maxCatchUp + 1).collectList()))
+                    .flatMapMany(found -> {
+                        if (found.getT1().size() + found.getT2().size() > maxCatchUp) {
+                            return Flux.<StaffEvent>error(new GoneException("More than " + maxCatchUp + " staff changed since Last-Event-ID " + lastEventId + ", resync from /staff/changes"));
+                        }
+                        List<StaffEvent> missed = new ArrayList<>(found.getT1().size() + found.getT2().size());
+                        found.getT1().forEach(row -> missed.add(new StaffEvent(lastEventId, StaffEvent.Type.UPDATED,
+                                row.staff().getId(), row.staff().getEtag(), row.staff().getUpdatedAt())));
+                        found.getT2().forEach(tombstone -> missed.add(new StaffEvent(lastEventId, StaffEvent.Type.DELETED,
+                                tombstone.id(), null, tombstone.deletedAt())));
+                        missed.sort(CATCH_UP_ORDER);
+                        return Flux.fromIterable(missed);
+                    })
+                    .doOnNext(event -> caughtUp.add(versionOf(event)));
+            Flux<StaffEvent> live = feed.events().filter(event -> !caughtUp.remove(versionOf(event)));
+            return Flux.concat(catchUp, live)
+                    .doFinally(signal -> feed.cancel().run());
+        });
+    }
+
+    private static String versionOf(StaffEvent event) {
+        return event.staffId() + "/" + event.etag();
     }
 
-    private Mono<Staff> getVillageAndCity(StaffEntity staffEntity) {
-        Mono<Village> villageMono = Mono.justOrEmpty(staffEntity.getVillageId())
-                .flatMap(this::getVillageById);
-        Mono<City> cityMono = Mono.justOrEmpty(staffEntity.getCityId())
-                .flatMap(this::getCityById);
-        return Mono.zip(villageMono.defaultIfEmpty(new Village()),
-                cityMono.defaultIfEmpty(new City()),
-                (village, city) -> StaffMapper.INSTANCE.toModel(staffEntity, village, city));
+    Mono<List<StaffSearchHit>> search(String query, int limit) {
+        int hits = Math.clamp(limit, 1, StaffSearchIndex.MAX_LIMIT);
+        return Mono.fromCallable(() -> operationTimer.record("staff.search", "query", () -> searchIndex.search(query, hits)));
     }
 
-    public Mono<Staff> get() {
+    Mono<StaffStats> stats() {
+        return Mono.fromCallable(statsAggregate::snapshot);
+    }
+
+    /**
+     * The caller's profile. Right after a write made by this instance it is answered from the primary
+     * until the replica has caught up.
+     */
+    public Mono<VersionedStaff> get(String ifNoneMatch) {
+        return get(ifNoneMatch, StaffFields.ALL);
+    }
+
+    /**
+     * The caller's profile with only {@code fields}. Projected from the cached full profile, which is
+     * cheaper than a narrower query once cached, under the same etag as the full representation.
+     */
+    Mono<VersionedStaff> get(String ifNoneMatch, StaffFields fields) {
         return ReactiveSecurityContextHolder.getContext()
                 .map(securityContext -> securityContext.getAuthentication().getName())
-                .flatMap(staffRepository::findById)
-                .flatMap(this::getVillageAndCity)
-                .switchIfEmpty(Mono.error(new RuntimeException("Staff not found")));
+                .flatMap(id -> profileCache.get(id, this::findCurrent))
+                .map(row -> StaffEtags.matches(ifNoneMatch, row.etag())
+                        ? VersionedStaff.notModified(row.etag())
+                        : new VersionedStaff(row.toModel(fields), row.etag()))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Staff not found")));
+    }
+
+    /**
+     * Reads the row from a replica, falling back to the primary when the replica has not yet caught up
+     * with a write this instance made. Only those writes are trusted: an etag from a request header says
+     * nothing reliable about what the primary holds.
+     */
+    private Mono<StaffRow> findCurrent(String id) {
+        Long minimumEtag = recentWrites.minimumEtag(id);
+        if (minimumEtag == null) {
+            return operationTimer.time(DB_TIMER, "findById", ReadReplicas.read(staffReadRepository.findById(id)));
+        }
+        if (minimumEtag == Long.MAX_VALUE) {
+            return operationTimer.time(DB_TIMER, "findById", staffReadRepository.findById(id));
+        }
+        return operationTimer.time(DB_TIMER, "findById", ReadReplicas.read(staffReadRepository.findById(id)))
+                .filter(row -> row.staff().getEtag() >= minimumEtag)
+                .switchIfEmpty(Mono.defer(() -> operationTimer.time(DB_TIMER, "findByIdOnPrimary", staffReadRepository.findById(id))));
     }
 
     public Mono<String> create(StaffRequest staffRequest) {
         log.info("Creating new staff with email: {}", staffRequest.getEmail());
-        return staffRepository.findByEmail(staffRequest.getEmail())
-                .flatMap(existingUser -> Mono.error(new RuntimeException("Staff with email: " + staffRequest.getEmail() + " already exists")))
-                .switchIfEmpty(Mono.defer(() -> validateVillageAndCity(staffRequest)))
-                .cast(StaffEntity.class)
+        return validateVillageAndCity(staffRequest)
+                .then(Mono.defer(() -> createStaff(staffRequest)))
+                .doOnNext(staffEntity -> {
+                    recentWrites.written(staffEntity.getId(), staffEntity.getEtag());
+                    searchIndex.put(staffEntity);
+                    statsAggregate.added(staffEntity);
+                    eventPublisher.publish(StaffEvent.Type.CREATED, staffEntity.getId(), staffEntity.getEtag(), staffEntity.getUpdatedAt());
+                })
+                .onErrorResume(DuplicateKeyException.class, ex -> duplicateStaff(staffRequest))
                 .map(StaffEntity::getId);
     }
 
-    private Mono<StaffEntity> validateVillageAndCity(StaffRequest staffRequest) {
-        return staffRequest.getCityId() == null ? Mono.error(new ResourceNotFoundException("City is required")) : getCityById(staffRequest.getCityId().toString())
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("City not found with id: " + staffRequest.getCityId())))
-                .flatMap(city -> {
-                    if (staffRequest.getVillageId() != null) {
-                        return getVillageById(staffRequest.getVillageId().toString())
-                                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Village not found with id: " + staffRequest.getVillageId())))
-                                .then(createStaff(staffRequest));
-                    }
-                    return createStaff(staffRequest);
-                });
+    private Mono<Void> validateVillageAndCity(StaffRequest staffRequest) {
+        if (staffRequest.getCityId() == null) {
+            return Mono.error(new ResourceNotFoundException("City is required"));
+        }
+        Mono<City> cityMono = getCityById(staffRequest.getCityId().toString())
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("City not found with id: " + staffRequest.getCityId())));
+        Mono<Village> villageMono = staffRequest.getVillageId() == null ? Mono.empty() : getVillageById(staffRequest.getVillageId().toString())
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Village not found with id: " + staffRequest.getVillageId())));
+        return Mono.when(cityMono, villageMono);
     }
 
     private Mono<StaffEntity> createStaff(StaffRequest staffRequest) {
         assert staffRequest.getCityId() != null;
         assert staffRequest.getId() != null;
-        assert staffRequest.getVillageId() != null;
-        StaffEntity staffEntity = StaffEntity.builder().id(staffRequest.getId().toString()).name(staffRequest.getName()).email(staffRequest.getEmail()).department(staffRequest.getDepartment()).cityId(staffRequest.getCityId().toString()).villageId(staffRequest.getVillageId().toString()).build();
-        return r2dbcEntityTemplate.insert(StaffEntity.class).using(staffEntity);
+        StaffEntity staffEntity = StaffEntity.builder().id(staffRequest.getId().toString()).name(staffRequest.getName()).email(staffRequest.getEmail()).department(staffRequest.getDepartment()).cityId(staffRequest.getCityId().toString()).villageId(staffRequest.getVillageId() == null ? null : staffRequest.getVillageId().toString()).build();
+        return operationTimer.time(DB_TIMER, "insert", r2dbcEntityTemplate.insert(StaffEntity.class).using(staffEntity));
+    }
+
+    /**
+     * Tells a duplicate id from a duplicate email by looking the id up, rather than by the driver's
+     * message text. Only runs once the insert has already failed.
+     */
+    private Mono<StaffEntity> duplicateStaff(StaffRequest staffRequest) {
+        String id = String.valueOf(staffRequest.getId());
+        return operationTimer.time(DB_TIMER, "existsById", staffRepository.existsById(id))
+                .flatMap(exists -> Mono.error(exists
+                        ? new ConflictException("Staff with id: " + id + " already exists")
+                        : new ConflictException("Staff with email: " + staffRequest.getEmail() + " already exists")));
     }
 
-    public Mono<Void> update(Staff staff) {
+    /**
+     * Applies the non-null properties of {@code staff} to the caller's row and emits the row's new etag,
+     * in the same composite form {@code GET /staff/me} returns. Only the row's city and village versions
+     * are read back. With {@code If-Match} the UPDATE fixes the new row version; without it the version is
+     * read back as well, and may already be that of a later write. A department move is counted from the
+     * department the search index had, and the stats reconcile corrects any drift from writes elsewhere.
+     */
+    public Mono<String> update(Staff staff, Long expectedEtag) {
         log.info("Updating staff with id: {}", staff.getId());
-        return ReactiveSecurityContextHolder.getContext().map(securityContext -> securityContext.getAuthentication().getName()).flatMap(staffRepository::findById).switchIfEmpty(Mono.error(new ResourceNotFoundException("staff not found with id: " + staff.getId()))).flatMap(staffEntity -> updateStaff(staff, staffEntity)).then();
+        return ReactiveSecurityContextHolder.getContext()
+                .map(securityContext -> securityContext.getAuthentication().getName())
+                .flatMap(id -> {
+                    Instant updatedAt = Instant.now();
+                    String department = staff.getDepartment() == null ? null : staff.getDepartment().toString();
+                    return updateStaff(id, staff, expectedEtag, updatedAt)
+                            .flatMap(updated -> updated == 0
+                                    ? this.<StaffReadRepository.Versions>missingOrStale(id, expectedEtag)
+                                    : operationTimer.time(DB_TIMER, "findVersionsById", staffReadRepository.findVersionsById(id))
+                                            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("staff not found with id: " + id))))
+                            .map(versions -> {
+                                long writtenEtag = expectedEtag != null ? expectedEtag + 1 : versions.staff();
+                                recentWrites.written(id, writtenEtag);
+                                profileCache.invalidate(id, writtenEtag);
+                                String previousDepartment = searchIndex.update(id, staff.getName(), staff.getEmail(), department);
+                                if (department != null && previousDepartment != null) {
+                                    statsAggregate.departmentChanged(previousDepartment, department);
+                                }
+                                eventPublisher.publish(StaffEvent.Type.UPDATED, id, writtenEtag, updatedAt);
+                                return StaffEtags.of(writtenEtag, versions.city(), versions.village());
+                            });
+                })
+                .onErrorMap(DuplicateKeyException.class, ex -> new ConflictException("Staff with email: " + staff.getEmail() + " already exists"));
     }
 
-    private Mono<StaffEntity> updateStaff(Staff staff, StaffEntity staffEntity) {
-        UpdateHelper.updateIfNotNull(staffEntity::setDepartment, staff.getDepartment());
-        UpdateHelper.updateIfNotNull(staffEntity::setName, staff.getName());
-        UpdateHelper.updateIfNotNull(staffEntity::setEmail, staff.getEmail());
-        return staffRepository.save(staffEntity);
+    private Mono<Long> updateStaff(String id, Staff staff, Long expectedEtag, Instant updatedAt) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        UpdateHelper.updateIfNotNull(department -> changes.put("department", department), staff.getDepartment());
+        UpdateHelper.updateIfNotNull(name -> changes.put("name", name), staff.getName());
+        UpdateHelper.updateIfNotNull(email -> changes.put("email", email), staff.getEmail());
+        StringBuilder sql = new StringBuilder("UPDATE staff SET ");
+        changes.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+        sql.append("updated_at = :updatedAt, etag = etag + 1 WHERE id = :id");
+        if (expectedEtag != null) {
+            sql.append(" AND etag = :etag");
+        }
+        DatabaseClient.GenericExecuteSpec statement = r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString())
+                .bind("updatedAt", updatedAt)
+                .bind("id", id);
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            statement = statement.bind(change.getKey(), change.getValue());
+        }
+        if (expectedEtag != null) {
+            statement = statement.bind("etag", expectedEtag);
+        }
+        return operationTimer.time(DB_TIMER, "update", statement.fetch().rowsUpdated());
+    }
+
+    private <T> Mono<T> missingOrStale(String id, Long expectedEtag) {
+        if (expectedEtag == null) {
+            return Mono.error(new ResourceNotFoundException("staff not found with id: " + id));
+        }
+        return operationTimer.time(DB_TIMER, "existsById", staffRepository.existsById(id))
+                .flatMap(exists -> Mono.<T>error(exists
+                        ? new PreconditionFailedException("staff with id: " + id + " was modified, etag " + expectedEtag + " is stale")
+                        : new ResourceNotFoundException("staff not found with id: " + id)));
     }
 
     public Mono<Void> delete(String id) {
         log.info("Deleting staff with id: {}", id);
-        return staffRepository.findById(id).switchIfEmpty(Mono.error(new RuntimeException("Staff not found with id: " + id))).flatMap(userEntity -> staffRepository.deleteById(userEntity.getId()));
+        Instant deletedAt = Instant.now();
+        return operationTimer.time(DB_TIMER, "delete", tombstoneRepository.deleteStaff(id, deletedAt))
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Staff not found with id: " + id)))
+                .doOnNext(deleted -> {
+                    recentWrites.written(id, null);
+                    profileCache.invalidate(id, null);
+                    statsAggregate.removed(searchIndex.remove(id));
+                    eventPublisher.publish(StaffEvent.Type.DELETED, id, null, deletedAt);
+                })
+                .then();
     }
-
-
 }
@@ -0,0 +1,7 @@
+package com.smartcity.staff.staff;
+
+import java.time.Instant;
+import java.util.Map;
+
+record StaffStats(long total, Map<String, Long> byDepartment, Map<String, Long> byCity, Map<String, Long> byVillage, Instant reconciledAt) {
+}
@@ -0,0 +1,143 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Staff counts per department, city and village, adjusted by this instance's creates, updates and
+ * deletes and reconciled periodically with a {@code GROUP BY} over the table to pick up writes made
+ * elsewhere. The write paths do not read rows just to keep these counts exact, so some adjustments are
+ * partial (see {@link #removed(String)}) and the counts are approximate between reconciles. Adjustments made while a reconciliation query runs are replayed onto its result.
+ */
+@Component
+@Slf4j
+class StaffStatsAggregate {
+    private final StaffReadRepository staffReadRepository;
+    private Counts counts = new Counts();
+    private List<Consumer<Counts>> pending;
+    private Instant reconciledAt;
+
+    StaffStatsAggregate(StaffReadRepository staffReadRepository) {
+        this.staffReadRepository = staffReadRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        reconcile().subscribe(null, ex -> log.error("Loading staff stats failed: {}", ex.getMessage()));
+    }
+
+    @Scheduled(fixedDelayString = "${smart_city.staff.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${smart_city.staff.stats.reconcile-interval:PT5M}")
+    public Mono<Void> reconcile() {
+        return Mono.defer(() -> {
+            if (!startReconcile()) {
+                return Mono.empty();
+            }
+            return staffReadRepository.countGrouped()
+                    .collect(Counts::new, Counts::add)
+                    .doOnNext(this::finishReconcile)
+                    .doOnError(ex -> abandonReconcile())
+                    .then();
+        });
+    }
+
+    void added(StaffEntity staff) {
+        apply(counts -> counts.adjust(staff.getDepartment(), staff.getCityId(), staff.getVillageId(), 1));
+    }
+
+    /**
+     * A delete, known only by the department the search index had for it ({@code null} if none): the
+     * row is not read before it is deleted, so its city and village counts catch up at the next reconcile.
+     */
+    void removed(String department) {
+        apply(counts -> counts.adjust(department, null, null, -1));
+    }
+
+    void departmentChanged(String from, String to) {
+        if (from.equals(to)) {
+            return;
+        }
+        apply(counts -> {
+            Counts.adjust(counts.byDepartment, from, -1);
+            Counts.adjust(counts.byDepartment, to, 1);
+        });
+    }
+
+    synchronized StaffStats snapshot() {
+        if (reconciledAt == null) {
+            throw new ServiceUnavailableException("Staff stats are still loading", null);
+        }
+        return new StaffStats(counts.total, new TreeMap<>(counts.byDepartment), new TreeMap<>(counts.byCity),
+                new TreeMap<>(counts.byVillage), reconciledAt);
+    }
+
+    private synchronized void apply(Consumer<Counts> adjustment) {
+        adjustment.accept(counts);
+        if (pending != null) {
+            pending.add(adjustment);
+        }
+    }
+
+    private synchronized boolean startReconcile() {
+        if (pending != null) {
+            return false;
+        }
+        pending = new ArrayList<>();
+        return true;
+    }
+
+    private synchronized void finishReconcile(Counts reconciled) {
+        pending.forEach(adjustment -> adjustment.accept(reconciled));
+        if (reconciledAt != null && reconciled.total != counts.total) {
+            log.info("Staff stats drifted by {} staff, reconciled to {}", reconciled.total - counts.total, reconciled.total);
+        }
+        counts = reconciled;
+        pending = null;
+        reconciledAt = Instant.now();
+    }
+
+    private synchronized void abandonReconcile() {
+        pending = null;
+    }
+
+    private static final class Counts {
+        private final Map<String, Long> byDepartment = new HashMap<>();
+        private final Map<String, Long> byCity = new HashMap<>();
+        private final Map<String, Long> byVillage = new HashMap<>();
+        private long total;
+
+        void add(StaffReadRepository.GroupCount group) {
+            adjust(group.department(), group.cityId(), group.villageId(), group.count());
+        }
+
+        void adjust(String department, String cityId, String villageId, long delta) {
+            total += delta;
+            adjust(byDepartment, department, delta);
+            adjust(byCity, cityId, delta);
+            adjust(byVillage, villageId, delta);
+        }
+
+        /**
+         * Staff without a department or village are only in the total.
+         */
+        static void adjust(Map<String, Long> counts, String key, long delta) {
+            if (key == null || key.isEmpty()) {
+                return;
+            }
+            counts.merge(key, delta, (count, change) -> count + change == 0 ? null : count + change);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartcity.staff.staff;
+
+import java.time.Instant;
+
+record StaffTombstone(String id, Instant deletedAt) {
+}
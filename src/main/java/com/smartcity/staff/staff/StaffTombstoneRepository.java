@@ -0,0 +1,61 @@
+package com.smartcity.staff.staff;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Deleted staff ids and when they were deleted, so delta consumers learn about deletes. A staff row and
+ * its tombstone are removed and written in the same transaction.
+ */
+@Repository
+class StaffTombstoneRepository {
+    private static final String SELECT_AFTER = "SELECT id, deleted_at FROM staff_tombstone "
+            + "WHERE deleted_at >= :at AND (deleted_at > :at OR id > :id) AND deleted_at <= :upTo ORDER BY deleted_at, id";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    StaffTombstoneRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Deletes the staff row and records its tombstone. Emits whether there was such a row; the tombstone
+     * is only written when there was.
+     */
+    Mono<Boolean> deleteStaff(String id, Instant deletedAt) {
+        return databaseClient.sql("DELETE FROM staff WHERE id = :id")
+                .bind("id", id)
+                .fetch().rowsUpdated()
+                .flatMap(deleted -> deleted == 0 ? Mono.just(false)
+                        : databaseClient.sql("INSERT INTO staff_tombstone (id, deleted_at) VALUES (:id, :deletedAt) "
+                                        + "ON DUPLICATE KEY UPDATE deleted_at = VALUES(deleted_at)")
+                                .bind("id", id)
+                                .bind("deletedAt", deletedAt)
+                                .fetch().rowsUpdated()
+                                .thenReturn(true))
+                .as(transactionalOperator::transactional);
+    }
+
+    Flux<StaffTombstone> findAfter(Instant at, String id, Instant upTo, int limit) {
+        return databaseClient.sql(SELECT_AFTER + " LIMIT :limit")
+                .bind("at", at)
+                .bind("id", id)
+                .bind("upTo", upTo)
+                .bind("limit", limit)
+                .map(row -> new StaffTombstone(row.get("id", String.class), row.get("deleted_at", Instant.class)))
+                .all();
+    }
+
+    Mono<Long> purgeBefore(Instant cutoff) {
+        return databaseClient.sql("DELETE FROM staff_tombstone WHERE deleted_at < :cutoff")
+                .bind("cutoff", cutoff)
+                .fetch().rowsUpdated();
+    }
+}
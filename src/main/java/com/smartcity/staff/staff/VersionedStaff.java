@@ -0,0 +1,16 @@
+package com.smartcity.staff.staff;
+
+/**
+ * A staff profile, either a full {@link com.smartcity.models.Staff} or a {@code fields=} projection of one,
+ * with its etag; {@code staff} is {@code null} when the client already has this version.
+ */
+record VersionedStaff(Object staff, String etag) {
+
+    static VersionedStaff notModified(String etag) {
+        return new VersionedStaff(null, etag);
+    }
+
+    boolean isNotModified() {
+        return staff == null;
+    }
+}
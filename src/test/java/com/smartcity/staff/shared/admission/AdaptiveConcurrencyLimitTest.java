@@ -0,0 +1,74 @@
+package com.smartcity.staff.shared.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void keepsTheReserveForPriorityCallers() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, THRESHOLD, 0.5, 0.2);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(limit.tryAcquire(false)).isTrue();
+        }
+
+        assertThat(limit.tryAcquire(false)).isFalse();
+        assertThat(limit.tryAcquire(true)).isTrue();
+        assertThat(limit.tryAcquire(true)).isTrue();
+        assertThat(limit.tryAcquire(true)).isFalse();
+        assertThat(limit.inFlight()).isEqualTo(10);
+    }
+
+    @Test
+    void growsOnlyWhileSaturated() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, THRESHOLD, 0.5, 0);
+
+        limit.tryAcquire(false);
+        limit.completed(0, FAST);
+        assertThat(limit.limit()).isEqualTo(10);
+
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10; i++) {
+                limit.tryAcquire(false);
+            }
+            for (int i = 0; i < 10; i++) {
+                limit.completed(0, FAST);
+            }
+        }
+        assertThat(limit.limit()).isGreaterThan(10);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void backsOffOncePerSlowBurst() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 1, 100, THRESHOLD, 0.5, 0);
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire(false);
+        }
+
+        limit.completed(0, SLOW);
+        limit.completed(0, SLOW + 1);
+        limit.dropped(0, SLOW + 2);
+        assertThat(limit.limit()).isEqualTo(20);
+
+        limit.completed(SLOW + 10, 2 * SLOW + 10);
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void neverShrinksBelowTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 3, 100, THRESHOLD, 0.5, 0);
+
+        limit.tryAcquire(false);
+        limit.dropped(0, SLOW);
+
+        assertThat(limit.limit()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,100 @@
+package com.smartcity.staff.shared.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionControl admissionControl = new AdmissionControl(meterRegistry, 2, 1, 10, Duration.ofSeconds(1),
+            0.5, 0.5, Duration.ofSeconds(2), 1, 1, 100);
+
+    @Test
+    void answersTooManyRequestsOnceASubjectIsOverItsQuota() {
+        MockServerWebExchange first = exchange("/staff");
+        MockServerWebExchange second = exchange("/staff");
+
+        call(first, "staff-1", "STAFF", exchange -> Mono.empty()).block();
+        call(second, "staff-1", "STAFF", exchange -> Mono.empty()).block();
+
+        assertThat(first.getResponse().getStatusCode()).isNull();
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.get("staff.admission.rejected").tag("reason", "quota").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shedsUsersBeforeSystemCallersWhenTheLimitIsReached() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        WebFilterChain hanging = exchange -> pending.asMono();
+        call(exchange("/staff"), "staff-1", "STAFF", hanging).subscribe();
+
+        MockServerWebExchange user = exchange("/staff");
+        MockServerWebExchange system = exchange("/staff/sync");
+        call(user, "staff-2", "STAFF", hanging).subscribe();
+        call(system, "location-service", "SYSTEM", hanging).subscribe();
+
+        assertThat(user.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(user.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(system.getResponse().getStatusCode()).isNull();
+        assertThat(meterRegistry.get("staff.admission.in_flight").gauge().value()).isEqualTo(2);
+
+        pending.tryEmitEmpty();
+        assertThat(meterRegistry.get("staff.admission.in_flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void letsActuatorRequestsThrough() {
+        MockServerWebExchange probe = exchange("/actuator/health");
+        Sinks.Empty<Void> pending = Sinks.empty();
+        call(exchange("/staff"), "staff-1", "STAFF", exchange -> pending.asMono()).subscribe();
+        call(exchange("/staff"), "location-service", "SYSTEM", exchange -> pending.asMono()).subscribe();
+
+        call(probe, null, null, exchange -> Mono.empty()).block();
+
+        assertThat(probe.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void keepsStreamsAndImportsOutOfTheLimit() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        WebFilterChain hanging = exchange -> pending.asMono();
+        call(exchange("/staff/events"), "staff-1", "STAFF", hanging).subscribe();
+        call(MockServerWebExchange.from(MockServerHttpRequest.get("/staff").accept(MediaType.APPLICATION_NDJSON)),
+                "staff-2", "STAFF", hanging).subscribe();
+        call(MockServerWebExchange.from(MockServerHttpRequest.post("/staff/import")), "staff-3", "STAFF", hanging).subscribe();
+
+        MockServerWebExchange page = exchange("/staff");
+        call(page, "staff-4", "STAFF", exchange -> Mono.empty()).block();
+
+        assertThat(page.getResponse().getStatusCode()).isNull();
+        assertThat(meterRegistry.get("staff.admission.in_flight").gauge().value()).isZero();
+    }
+
+    private Mono<Void> call(MockServerWebExchange exchange, String subject, String authority, WebFilterChain chain) {
+        Mono<Void> filtered = admissionControl.filter(exchange, chain);
+        if (subject != null) {
+            filtered = filtered.contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                    new UsernamePasswordAuthenticationToken(subject, null, AuthorityUtils.createAuthorityList(authority))));
+        }
+        return filtered;
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,40 @@
+package com.smartcity.staff.shared.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final JwtService jwtService = new JwtService(SECRET, 60, 100);
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromCache() {
+        UserDetails user = User.withUsername("staff-1").password("").authorities("STAFF").build();
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.extractUsername(first)).isEqualTo("staff-1");
+        assertThat(jwtService.extractRoles(first)).containsExactly("STAFF");
+        assertThat(jwtService.isTokenValid(first)).isTrue();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        String otherSecret = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+        UserDetails user = User.withUsername("staff-1").password("").authorities("STAFF").build();
+        String token = new JwtService(otherSecret, 60, 100).generateToken(user);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(JwtAuthenticationException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.smartcity.staff.shared.r2dbc;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+class ReadRoutingConnectionFactoryTest {
+    private ReadRoutingConnectionFactory connectionFactory;
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionPool primary = database("primary");
+        ConnectionPool replica = database("replica");
+        connectionFactory = new ReadRoutingConnectionFactory(primary, List.of(replica));
+        connectionFactory.afterPropertiesSet();
+        databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void sendsMarkedReadsToTheReplica() {
+        StepVerifier.create(ReadReplicas.read(whoAmI())).expectNext("replica").verifyComplete();
+    }
+
+    @Test
+    void sendsEverythingElseToThePrimary() {
+        StepVerifier.create(whoAmI()).expectNext("primary").verifyComplete();
+    }
+
+    @Test
+    void keepsReadsInsideATransactionOnThePrimary() {
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+
+        StepVerifier.create(ReadReplicas.read(whoAmI()).as(transactionalOperator::transactional))
+                .expectNext("primary")
+                .verifyComplete();
+    }
+
+    private Mono<String> whoAmI() {
+        return databaseClient.sql("SELECT name FROM whoami").map(row -> row.get("name", String.class)).one();
+    }
+
+    private static ConnectionPool database(String name) {
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                        H2ConnectionFactory.inMemory(name + "-" + UUID.randomUUID()))
+                .maxSize(2)
+                .build());
+        DatabaseClient client = DatabaseClient.create(pool);
+        client.sql("CREATE TABLE whoami (name VARCHAR(16))").then()
+                .then(client.sql("INSERT INTO whoami (name) VALUES (:name)").bind("name", name).then())
+                .block();
+        return pool;
+    }
+}
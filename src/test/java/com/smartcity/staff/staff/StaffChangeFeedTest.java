@@ -0,0 +1,93 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.GoneException;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaffChangeFeedTest {
+    private static final Instant T0 = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+
+    private final StaffReadRepository staffReadRepository = mock(StaffReadRepository.class);
+    private final StaffTombstoneRepository tombstoneRepository = mock(StaffTombstoneRepository.class);
+    private final StaffChangeFeed feed = new StaffChangeFeed(staffReadRepository, tombstoneRepository,
+            new OperationTimer(new SimpleMeterRegistry()), Duration.ofSeconds(5), Duration.ofDays(30));
+
+    @Test
+    void mergesUpsertsAndTombstonesInKeysetOrder() {
+        when(staffReadRepository.findChangedAfter(any(), anyString(), any(), anyInt()))
+                .thenReturn(Flux.just(row("a", T0), row("c", T0.plusSeconds(2))));
+        when(tombstoneRepository.findAfter(any(), anyString(), any(), anyInt()))
+                .thenReturn(Flux.just(new StaffTombstone("b", T0.plusSeconds(1))));
+
+        StepVerifier.create(feed.getChanges(null, 10))
+                .assertNext(page -> {
+                    assertThat(page.changes()).extracting(StaffChange::id).containsExactly("a", "b", "c");
+                    assertThat(page.changes()).extracting(StaffChange::type)
+                            .containsExactly(StaffChange.Type.UPSERTED, StaffChange.Type.DELETED, StaffChange.Type.UPSERTED);
+                    assertThat(page.hasMore()).isFalse();
+                    assertThat(StaffChangeCursor.decode(page.next())).isEqualTo(new StaffChangeCursor(T0.plusSeconds(2), "c"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void cutsThePageAtTheLimitAndReportsMore() {
+        when(staffReadRepository.findChangedAfter(any(), anyString(), any(), anyInt()))
+                .thenReturn(Flux.just(row("a", T0), row("c", T0.plusSeconds(2))));
+        when(tombstoneRepository.findAfter(any(), anyString(), any(), anyInt()))
+                .thenReturn(Flux.just(new StaffTombstone("b", T0.plusSeconds(1)), new StaffTombstone("d", T0.plusSeconds(3))));
+
+        StepVerifier.create(feed.getChanges(null, 2))
+                .assertNext(page -> {
+                    assertThat(page.changes()).extracting(StaffChange::id).containsExactly("a", "b");
+                    assertThat(page.hasMore()).isTrue();
+                    assertThat(StaffChangeCursor.decode(page.next())).isEqualTo(new StaffChangeCursor(T0.plusSeconds(1), "b"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void movesTheCursorUpToTheSettledPointWhenNothingChanged() {
+        String cursor = new StaffChangeCursor(T0, "a").encode();
+        when(staffReadRepository.findChangedAfter(any(), anyString(), any(), anyInt())).thenReturn(Flux.empty());
+        when(tombstoneRepository.findAfter(any(), anyString(), any(), anyInt())).thenReturn(Flux.empty());
+        Instant before = Instant.now().minusSeconds(5);
+
+        StepVerifier.create(feed.getChanges(cursor, 10))
+                .assertNext(page -> {
+                    assertThat(page.changes()).isEmpty();
+                    assertThat(page.hasMore()).isFalse();
+                    StaffChangeCursor next = StaffChangeCursor.decode(page.next());
+                    assertThat(next.id()).isEmpty();
+                    assertThat(next.at()).isBetween(before, Instant.now().minusSeconds(5));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectsCursorsOlderThanTheTombstoneRetention() {
+        String cursor = new StaffChangeCursor(Instant.now().minus(31, ChronoUnit.DAYS), "a").encode();
+
+        StepVerifier.create(feed.getChanges(cursor, 10))
+                .expectError(GoneException.class)
+                .verify();
+    }
+
+    private static StaffRow row(String id, Instant updatedAt) {
+        return new StaffRow(StaffEntity.builder().id(id).etag(0L).updatedAt(updatedAt).build(), null, 0, null, 0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.CustomExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaffControllerTest {
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        StaffService staffService = mock(StaffService.class);
+        when(staffService.getPage(any(), anyInt(), any(), any()))
+                .thenReturn(Mono.just(new StaffPage(List.of(Map.of("name", "page")), null)));
+        when(staffService.getAll(any(), any()))
+                .thenReturn(Flux.just(Map.of("name", "stream")));
+        webTestClient = WebTestClient.bindToController(new StaffController(staffService, null, null))
+                .controllerAdvice(new CustomExceptionHandler(10))
+                .build();
+    }
+
+    @Test
+    void answersAListingWithoutAnAcceptHeaderAsJson() {
+        webTestClient.get().uri("/staff?limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$[0].name").isEqualTo("page");
+    }
+
+    @Test
+    void answersAnyAcceptHeaderWithThePage() {
+        webTestClient.get().uri("/staff?limit=10")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].name").isEqualTo("page");
+    }
+
+    @Test
+    void answersEveryStaffMemberWithoutLimitOrCursor() {
+        webTestClient.get().uri("/staff")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(StaffController.NEXT_CURSOR_HEADER)
+                .expectBody().jsonPath("$[0].name").isEqualTo("stream");
+    }
+
+    @Test
+    void rejectsLimitsBelowOne() {
+        webTestClient.get().uri("/staff?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamsWhenNdjsonIsAskedFor() {
+        webTestClient.get().uri("/staff")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"name\":\"stream\"}\n");
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartcity.staff.staff;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaffEventPublisherTest {
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StaffEventPublisher publisher = new StaffEventPublisher(meterRegistry, 3, 2);
+
+    @Test
+    void newSubscribersOnlySeeLaterEvents() {
+        publisher.publish(StaffEvent.Type.CREATED, "a", 0L, NOW);
+        StaffEventPublisher.Feed feed = publisher.subscribe(null);
+        publisher.publish(StaffEvent.Type.UPDATED, "b", 1L, NOW);
+
+        assertThat(feed.gapless()).isTrue();
+        StepVerifier.create(feed.events())
+                .assertNext(event -> assertThat(event.staffId()).isEqualTo("b"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void resumesFromTheReplayBuffer() {
+        publisher.publish(StaffEvent.Type.CREATED, "a", 0L, NOW);
+        publisher.publish(StaffEvent.Type.UPDATED, "b", 1L, NOW);
+        publisher.publish(StaffEvent.Type.DELETED, "c", null, NOW);
+
+        StaffEventPublisher.Feed feed = publisher.subscribe(StaffEventId.parse(StaffEventId.format(NOW, 1)));
+
+        assertThat(feed.gapless()).isTrue();
+        StepVerifier.create(feed.events())
+                .assertNext(event -> assertThat(event.staffId()).isEqualTo("b"))
+                .assertNext(event -> assertThat(event.staffId()).isEqualTo("c"))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void reportsAGapOnceTheResumePointIsEvicted() {
+        for (int i = 0; i < 4; i++) {
+            publisher.publish(StaffEvent.Type.UPDATED, "s" + i, (long) i, NOW);
+        }
+
+        assertThat(publisher.subscribe(StaffEventId.parse(StaffEventId.format(NOW, 1))).gapless()).isFalse();
+    }
+
+    @Test
+    void dropsSubscribersThatFallBehind() {
+        StaffEventPublisher.Feed slow = publisher.subscribe(null);
+        for (int i = 0; i < 16; i++) {
+            publisher.publish(StaffEvent.Type.UPDATED, "s" + i, (long) i, NOW);
+        }
+
+        StepVerifier.create(slow.events())
+                .thenConsumeWhile(event -> true)
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void dropsSubscribersOnceTheirBufferIsFull() {
+        StaffEventPublisher.Feed slow = publisher.subscribe(null);
+        for (int i = 0; i < 3; i++) {
+            publisher.publish(StaffEvent.Type.UPDATED, "s" + i, (long) i, NOW);
+        }
+
+        StepVerifier.create(slow.events())
+                .assertNext(event -> assertThat(event.staffId()).isEqualTo("s0"))
+                .assertNext(event -> assertThat(event.staffId()).isEqualTo("s1"))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertThat(meterRegistry.get("staff.events.dropped.subscribers").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCountDisconnectsAsDrops() {
+        StaffEventPublisher.Feed feed = publisher.subscribe(null);
+        StepVerifier.create(feed.events())
+                .then(() -> publisher.publish(StaffEvent.Type.UPDATED, "a", 0L, NOW))
+                .expectNextCount(1)
+                .thenCancel()
+                .verify();
+        publisher.publish(StaffEvent.Type.UPDATED, "b", 1L, NOW);
+
+        assertThat(meterRegistry.get("staff.events.dropped.subscribers").counter().count()).isZero();
+    }
+
+    @Test
+    void doesNotCountTheReplayAgainstTheBuffer() {
+        publisher.publish(StaffEvent.Type.CREATED, "a", 0L, NOW);
+        publisher.publish(StaffEvent.Type.UPDATED, "b", 1L, NOW);
+        publisher.publish(StaffEvent.Type.UPDATED, "c", 2L, NOW);
+        StaffEventPublisher.Feed feed = publisher.subscribe(StaffEventId.parse(StaffEventId.format(NOW, 1)));
+        publisher.publish(StaffEvent.Type.UPDATED, "d", 3L, NOW);
+        publisher.publish(StaffEvent.Type.UPDATED, "e", 4L, NOW);
+
+        StepVerifier.create(feed.events())
+                .expectNextMatches(event -> event.staffId().equals("b"))
+                .expectNextMatches(event -> event.staffId().equals("c"))
+                .expectNextMatches(event -> event.staffId().equals("d"))
+                .expectNextMatches(event -> event.staffId().equals("e"))
+                .thenCancel()
+                .verify();
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.models.City;
+import com.smartcity.models.Staff;
+import com.smartcity.models.Village;
+import com.smartcity.staff.shared.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaffFieldsTest {
+    private static final String STAFF_ID = "6f1c2a9e-4d3b-4c8a-9b7e-2f5d8c1a0e34";
+
+    @Test
+    void treatsMissingOrCompleteListsAsTheFullRepresentation() {
+        assertThat(StaffFields.parse(null).isAll()).isTrue();
+        assertThat(StaffFields.parse(" ").isAll()).isTrue();
+        assertThat(StaffFields.parse("village,city,department,email,name,id").isAll()).isTrue();
+    }
+
+    @Test
+    void selectsTheIdAndOnlyTheRequestedColumns() {
+        StaffFields fields = StaffFields.parse("name, department");
+
+        assertThat(fields.columns("s")).isEqualTo("s.id, s.name, s.department");
+        assertThat(fields.includesCity()).isFalse();
+        assertThat(fields.includesVillage()).isFalse();
+        assertThat(StaffFields.parse("city").columns("s")).isEqualTo("s.id, s.city_id");
+        assertThat(StaffFields.parse("city").includesCity()).isTrue();
+    }
+
+    @Test
+    void projectsOnlyTheRequestedProperties() {
+        City city = new City();
+        city.setName("Pune");
+        StaffEntity entity = StaffEntity.builder().id(STAFF_ID).name("Asha").build();
+
+        Map<String, Object> projected = StaffMapper.INSTANCE.toModel(entity, new Village(), city, StaffFields.parse("city,id"));
+
+        assertThat(projected).containsOnlyKeys("id", "city");
+        assertThat(projected.get("id")).hasToString(STAFF_ID);
+        assertThat(((City) projected.get("city")).getName()).isEqualTo("Pune");
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertThatThrownBy(() -> StaffFields.parse("id,salary"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("salary");
+    }
+
+    @Test
+    void keepsTheFullModelForAllFields() {
+        StaffRow row = new StaffRow(StaffEntity.builder().id(STAFF_ID).name("Asha").build(), null, 0, null, 0);
+
+        assertThat(row.toModel(StaffFields.ALL)).isInstanceOf(Staff.class);
+        assertThat(row.toModel(StaffFields.parse("name"))).isEqualTo(Map.of("name", "Asha"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.smartcity.staff.staff;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.smartcity.staff.location.LocationDirectory;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaffImportServiceTest {
+    private static final String CITY_ID = "8d3c1f0e-6d1a-4a8e-9a51-3c2b1f0e9d7a";
+
+    private LocationDirectory locationDirectory;
+    private StaffImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        StaffRepository staffRepository = mock(StaffRepository.class);
+        when(staffRepository.findConflicts(anyCollection(), anyCollection())).thenReturn(Flux.empty());
+        locationDirectory = mock(LocationDirectory.class);
+        importService = new StaffImportService(staffRepository, mock(R2dbcEntityTemplate.class, RETURNS_DEEP_STUBS), locationDirectory,
+                mock(TransactionalOperator.class), new OperationTimer(new SimpleMeterRegistry()),
+                new StaffSearchIndex(null, new SimpleMeterRegistry(), 50), new StaffEventPublisher(new SimpleMeterRegistry(), 100, 100),
+                new StaffStatsAggregate(null), new RecentStaffWrites(Duration.ofSeconds(30), 100),
+                Validation.buildDefaultValidatorFactory().getValidator(), JsonMapper.builder().findAndAddModules().build(), 2);
+    }
+
+    @Test
+    void reportsAFailedLookupForItsChunkAndCarriesOn() {
+        when(locationDirectory.getCitiesByIds(any()))
+                .thenReturn(Mono.error(new IllegalStateException("location-service unavailable")))
+                .thenReturn(Mono.error(new IllegalStateException("still unavailable")));
+
+        StepVerifier.create(importService.importCsv(Flux.just(
+                        csv("5b0f7a1e-2a6c-4c3e-9a51-3c2b1f0e9d71", "a@smartcity.local"),
+                        csv("5b0f7a1e-2a6c-4c3e-9a51-3c2b1f0e9d72", "b@smartcity.local"),
+                        csv("5b0f7a1e-2a6c-4c3e-9a51-3c2b1f0e9d73", "c@smartcity.local"))))
+                .assertNext(result -> assertFailed(result, 1, "location-service unavailable"))
+                .assertNext(result -> assertFailed(result, 2, "location-service unavailable"))
+                .assertNext(result -> assertFailed(result, 3, "still unavailable"))
+                .verifyComplete();
+    }
+
+    @Test
+    void failsRowsThatDoNotReadAsAStaffRequest() {
+        StepVerifier.create(importService.importCsv(Flux.just(csv("not-a-uuid", "a@smartcity.local"))))
+                .assertNext(result -> assertFailed(result, 1, "Invalid row"))
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectsMalformedJsonLinesWithoutEndingTheImport() {
+        StepVerifier.create(importService.importNdjson(Flux.just("{\"id\": ", "")))
+                .assertNext(result -> {
+                    assertThat(result.status()).isEqualTo(StaffImportResult.Status.REJECTED);
+                    assertThat(result.message()).startsWith("Malformed JSON");
+                })
+                .verifyComplete();
+    }
+
+    private static String csv(String id, String email) {
+        return id + ",Jane," + email + ",Sanitation," + CITY_ID + ",";
+    }
+
+    private static void assertFailed(StaffImportResult result, long line, String message) {
+        assertThat(result.line()).isEqualTo(line);
+        assertThat(result.status()).isEqualTo(StaffImportResult.Status.FAILED);
+        assertThat(result.message()).contains(message);
+    }
+}
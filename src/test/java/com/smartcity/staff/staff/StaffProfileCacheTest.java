@@ -0,0 +1,76 @@
+package com.smartcity.staff.staff;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaffProfileCacheTest {
+    private final StaffProfileCache cache = new StaffProfileCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        Sinks.One<StaffRow> pending = Sinks.one();
+        Mono<StaffRow> first = cache.get("a", id -> {
+            loads.incrementAndGet();
+            return pending.asMono();
+        }).cache();
+        Mono<StaffRow> second = cache.get("a", id -> {
+            loads.incrementAndGet();
+            return pending.asMono();
+        }).cache();
+        first.subscribe();
+        second.subscribe();
+
+        pending.tryEmitValue(row("a", 1));
+
+        assertThat(first.block().staff().getEtag()).isEqualTo(1);
+        assertThat(second.block().staff().getEtag()).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void writesInvalidateOlderEntriesOnly() {
+        cache.get("a", id -> load(row("a", 2))).block();
+
+        cache.invalidate("a", 2L);
+        assertThat(cache.get("a", id -> load(row("a", 3))).block().staff().getEtag()).isEqualTo(2);
+
+        cache.invalidate("a", 3L);
+        assertThat(cache.get("a", id -> load(row("a", 3))).block().staff().getEtag()).isEqualTo(3);
+
+        cache.invalidate("a", null);
+        assertThat(cache.get("a", id -> load(row("a", 4))).block().staff().getEtag()).isEqualTo(4);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void aLoadThatRacedAWriteIsNotCached() {
+        Sinks.One<StaffRow> pending = Sinks.one();
+        Mono<StaffRow> racing = cache.get("a", id -> pending.asMono()).cache();
+        racing.subscribe();
+
+        cache.invalidate("a", 2L);
+        pending.tryEmitValue(row("a", 1));
+
+        assertThat(racing.block().staff().getEtag()).isEqualTo(1);
+        assertThat(cache.get("a", id -> load(row("a", 2))).block().staff().getEtag()).isEqualTo(2);
+    }
+
+    private Mono<StaffRow> load(StaffRow row) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return row;
+        });
+    }
+
+    private static StaffRow row(String id, long etag) {
+        return new StaffRow(StaffEntity.builder().id(id).etag(etag).build(), null, 0, null, 0);
+    }
+}
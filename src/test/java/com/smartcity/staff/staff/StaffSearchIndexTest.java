@@ -0,0 +1,117 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaffSearchIndexTest {
+    private final StaffRepository staffRepository = mock(StaffRepository.class);
+    private StaffSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StaffSearchIndex(staffRepository, new SimpleMeterRegistry(), 50);
+    }
+
+    @Test
+    void refusesQueriesUntilLoaded() {
+        assertThatThrownBy(() -> index.search("jane", 10)).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void ranksNameMatchesAboveEmailAndDepartmentMatches() {
+        load(staff("1", "Jane Smith", "jane.smith@city.gov", "Sanitation"),
+                staff("2", "Bob Janeway", "bob@city.gov", "Roads"),
+                staff("3", "Alice Brown", "alice@jane.org", "Water"),
+                staff("4", "Carl Green", "carl@city.gov", "Janes Depot"));
+
+        assertThat(ids(index.search("jane", 10))).containsExactly("1", "2", "3", "4");
+        assertThat(ids(index.search("JANE smi", 10))).containsExactly("1");
+        assertThat(ids(index.search("jane", 2))).containsExactly("1", "2");
+    }
+
+    @Test
+    void appliesCreatesUpdatesAndDeletes() {
+        load(staff("1", "Jane Smith", "jane.smith@city.gov", "Sanitation"));
+
+        index.put(staff("2", "Janet Doe", "janet@city.gov", "Roads"));
+        index.update("1", "Mary Smith", null, null);
+
+        assertThat(ids(index.search("jan", 10))).containsExactly("2", "1");
+        assertThat(ids(index.search("mary", 10))).containsExactly("1");
+
+        index.remove("2");
+
+        assertThat(ids(index.search("janet", 10))).isEmpty();
+    }
+
+    @Test
+    void rebuildDropsStaffDeletedElsewhere() {
+        load(staff("1", "Jane Smith", "jane.smith@city.gov", "Sanitation"), staff("2", "Janet Doe", "janet@city.gov", "Roads"));
+
+        load(staff("1", "Jane Smith", "jane.smith@city.gov", "Sanitation"));
+
+        assertThat(ids(index.search("jan", 10))).containsExactly("1");
+    }
+
+    @Test
+    void ranksAllCandidatesOfAShortPrefix() {
+        load(staff("1", "Ann Brown", "ann@city.gov", "Jaywalking"),
+                staff("2", "Bea Green", "bea@city.gov", "Jetties"),
+                staff("3", "Jo Zed", "zed@city.gov", "Roads"));
+
+        assertThat(ids(index.search("j", 1))).containsExactly("3");
+    }
+
+    @Test
+    void scoresAtMostCandidatesPerHitTimesTheLimit() {
+        index = new StaffSearchIndex(staffRepository, new SimpleMeterRegistry(), 2);
+        load(staff("1", "Ann Brown", "ann@city.gov", "Jaywalking"),
+                staff("2", "Bea Green", "bea@city.gov", "Jetties"),
+                staff("3", "Jo Zed", "zed@city.gov", "Roads"));
+
+        assertThat(ids(index.search("j", 1))).containsExactly("1");
+        assertThat(ids(index.search("jo", 1))).containsExactly("3");
+    }
+
+    @Test
+    void keepsStaffDeletedDuringARebuildDeleted() {
+        load(staff("1", "Jane Smith", "jane.smith@city.gov", "Sanitation"), staff("2", "Janet Doe", "janet@city.gov", "Roads"));
+        Sinks.Many<StaffEntity> scan = Sinks.many().unicast().onBackpressureBuffer();
+        when(staffRepository.findAll()).thenReturn(scan.asFlux());
+        Mono<Void> rebuild = index.rebuild().cache();
+        rebuild.subscribe();
+
+        index.remove("2");
+        scan.tryEmitNext(staff("1", "Jane Smith", "jane.smith@city.gov", "Sanitation"));
+        scan.tryEmitNext(staff("2", "Janet Doe", "janet@city.gov", "Roads"));
+        scan.tryEmitComplete();
+        rebuild.block();
+
+        assertThat(ids(index.search("jan", 10))).containsExactly("1");
+    }
+
+    private void load(StaffEntity... staff) {
+        when(staffRepository.findAll()).thenReturn(Flux.just(staff));
+        index.rebuild().block();
+    }
+
+    private static StaffEntity staff(String id, String name, String email, String department) {
+        return StaffEntity.builder().id(id).name(name).email(email).department(department).build();
+    }
+
+    private static List<String> ids(List<StaffSearchHit> hits) {
+        return hits.stream().map(StaffSearchHit::id).toList();
+    }
+}
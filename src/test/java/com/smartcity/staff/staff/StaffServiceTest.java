@@ -0,0 +1,153 @@
+package com.smartcity.staff.staff;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.smartcity.models.City;
+import com.smartcity.models.StaffRequest;
+import com.smartcity.models.Village;
+import com.smartcity.staff.location.LocationDirectory;
+import com.smartcity.staff.shared.exception.ConflictException;
+import com.smartcity.staff.shared.metrics.OperationTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaffServiceTest {
+    private static final Duration LOCATION_LATENCY = Duration.ofMillis(200);
+    private static final String STAFF_ID = "5b0f7a1e-2a6c-4c3e-9a51-3c2b1f0e9d7a";
+    private static final String CITY_ID = "8d3c1f0e-6d1a-4a8e-9a51-3c2b1f0e9d7a";
+    private static final String VILLAGE_ID = "1e9d7a0b-6d1a-4a8e-9a51-3c2b1f0e9d7a";
+
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+    private StaffRepository staffRepository;
+    private StaffReadRepository staffReadRepository;
+    private StaffTombstoneRepository tombstoneRepository;
+    private StaffService staffService;
+
+    @BeforeEach
+    void setUp() {
+        LocationDirectory locationDirectory = new DelayedLocationDirectory();
+        r2dbcEntityTemplate = mock(R2dbcEntityTemplate.class, RETURNS_DEEP_STUBS);
+        staffRepository = mock(StaffRepository.class);
+        staffReadRepository = mock(StaffReadRepository.class);
+        tombstoneRepository = mock(StaffTombstoneRepository.class);
+        staffService = new StaffService(locationDirectory, staffReadRepository, staffRepository, r2dbcEntityTemplate, new OperationTimer(new SimpleMeterRegistry()),
+                new StaffSearchIndex(null, new SimpleMeterRegistry(), 50), new StaffEventPublisher(new SimpleMeterRegistry(), 100, 100), tombstoneRepository,
+                new StaffStatsAggregate(null), new StaffProfileCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new RecentStaffWrites(Duration.ofSeconds(30), 100), 1000);
+    }
+
+    @Test
+    void validatesCityAndVillageConcurrently() throws Exception {
+        when(r2dbcEntityTemplate.insert(StaffEntity.class).using(any(StaffEntity.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        StaffRequest staffRequest = staffRequest();
+
+        StepVerifier.withVirtualTime(() -> staffService.create(staffRequest))
+                .expectSubscription()
+                .expectNoEvent(LOCATION_LATENCY.minusMillis(1))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext(STAFF_ID)
+                .verifyComplete();
+    }
+
+    @Test
+    void translatesDuplicateEmailFromUniqueConstraint() throws Exception {
+        when(r2dbcEntityTemplate.insert(StaffEntity.class).using(any(StaffEntity.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("Duplicate entry 'jane@smartcity.local' for key 'staff.email'")));
+        when(staffRepository.existsById(STAFF_ID)).thenReturn(Mono.just(false));
+
+        StepVerifier.withVirtualTime(() -> staffService.create(staffRequest()))
+                .thenAwait(LOCATION_LATENCY)
+                .expectErrorSatisfies(ex -> {
+                    assertThat(ex).isInstanceOf(ConflictException.class).hasMessage("Staff with email: jane@smartcity.local already exists");
+                    assertThat(((ConflictException) ex).getStatus()).isEqualTo(HttpStatus.CONFLICT);
+                    assertThat(ex.getStackTrace()).isEmpty();
+                })
+                .verify();
+    }
+
+    @Test
+    void translatesDuplicateIdWhenTheIdIsTaken() throws Exception {
+        when(r2dbcEntityTemplate.insert(StaffEntity.class).using(any(StaffEntity.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("Entrada duplicada para la clave 'PRIMARIA'")));
+        when(staffRepository.existsById(STAFF_ID)).thenReturn(Mono.just(true));
+
+        StepVerifier.withVirtualTime(() -> staffService.create(staffRequest()))
+                .thenAwait(LOCATION_LATENCY)
+                .expectErrorSatisfies(ex -> assertThat(ex).isInstanceOf(ConflictException.class)
+                        .hasMessage("Staff with id: " + STAFF_ID + " already exists"))
+                .verify();
+    }
+
+    @Test
+    void catchesUpOnStaffDeletedWhileDisconnected() {
+        Instant lastSeen = Instant.now().minus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        String updatedId = UUID.randomUUID().toString();
+        when(staffReadRepository.findChangedAfter(any(), anyString(), any(), anyInt())).thenReturn(Flux.just(
+                new StaffRow(StaffEntity.builder().id(updatedId).etag(3L).updatedAt(lastSeen.plusSeconds(2)).build(), null, 0, null, 0)));
+        when(tombstoneRepository.findAfter(any(), anyString(), any(), anyInt()))
+                .thenReturn(Flux.just(new StaffTombstone(STAFF_ID, lastSeen.plusSeconds(1))));
+
+        StepVerifier.create(staffService.events(StaffEventId.format(lastSeen, 42)))
+                .assertNext(event -> {
+                    assertThat(event.type()).isEqualTo(StaffEvent.Type.DELETED);
+                    assertThat(event.staffId()).isEqualTo(STAFF_ID);
+                })
+                .assertNext(event -> {
+                    assertThat(event.type()).isEqualTo(StaffEvent.Type.UPDATED);
+                    assertThat(event.staffId()).isEqualTo(updatedId);
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    private static StaffRequest staffRequest() throws Exception {
+        return JsonMapper.builder().findAndAddModules().build().readValue("""
+                {"id": "%s", "name": "Jane", "email": "jane@smartcity.local", "department": "Sanitation",
+                 "cityId": "%s", "villageId": "%s"}
+                """.formatted(STAFF_ID, CITY_ID, VILLAGE_ID), StaffRequest.class);
+    }
+
+    private static class DelayedLocationDirectory implements LocationDirectory {
+        @Override
+        public Mono<City> getCityById(String id) {
+            return Mono.delay(LOCATION_LATENCY).map(tick -> new City());
+        }
+
+        @Override
+        public Mono<Village> getVillageById(String id) {
+            return Mono.delay(LOCATION_LATENCY).map(tick -> new Village());
+        }
+
+        @Override
+        public Mono<Map<String, City>> getCitiesByIds(Collection<String> ids) {
+            return Mono.delay(LOCATION_LATENCY).map(tick -> Map.of());
+        }
+
+        @Override
+        public Mono<Map<String, Village>> getVillagesByIds(Collection<String> ids) {
+            return Mono.delay(LOCATION_LATENCY).map(tick -> Map.of());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartcity.staff.staff;
+
+import com.smartcity.staff.shared.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaffStatsAggregateTest {
+    private final StaffReadRepository staffReadRepository = mock(StaffReadRepository.class);
+    private final StaffStatsAggregate aggregate = new StaffStatsAggregate(staffReadRepository);
+
+    @Test
+    void refusesSnapshotsUntilReconciled() {
+        assertThatThrownBy(aggregate::snapshot).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void sumsGroupsPerDimension() {
+        reconcile(group("Roads", "c1", "v1", 2), group("Roads", "c2", null, 3), group(null, "c1", "v2", 1));
+
+        StaffStats stats = aggregate.snapshot();
+
+        assertThat(stats.total()).isEqualTo(6);
+        assertThat(stats.byDepartment()).isEqualTo(Map.of("Roads", 5L));
+        assertThat(stats.byCity()).isEqualTo(Map.of("c1", 3L, "c2", 3L));
+        assertThat(stats.byVillage()).isEqualTo(Map.of("v1", 2L, "v2", 1L));
+    }
+
+    @Test
+    void appliesCreatesMovesAndDeletes() {
+        reconcile(group("Roads", "c1", "v1", 1));
+
+        aggregate.added(staff("Water", "c2", null));
+        aggregate.departmentChanged("Roads", "Water");
+        aggregate.removed("Water");
+
+        StaffStats stats = aggregate.snapshot();
+        assertThat(stats.total()).isEqualTo(1);
+        assertThat(stats.byDepartment()).isEqualTo(Map.of("Water", 1L));
+        // a delete's city and village are only corrected by the next reconcile
+        assertThat(stats.byCity()).isEqualTo(Map.of("c1", 1L, "c2", 1L));
+        assertThat(stats.byVillage()).isEqualTo(Map.of("v1", 1L));
+    }
+
+    @Test
+    void replaysWritesMadeWhileReconciling() {
+        reconcile(group("Roads", "c1", null, 1));
+        Sinks.Many<StaffReadRepository.GroupCount> groups = Sinks.many().unicast().onBackpressureBuffer();
+        when(staffReadRepository.countGrouped()).thenReturn(groups.asFlux());
+
+        aggregate.reconcile().subscribe();
+        aggregate.added(staff("Water", "c1", null));
+        groups.tryEmitNext(group("Roads", "c1", null, 4));
+        groups.tryEmitComplete();
+
+        StaffStats stats = aggregate.snapshot();
+        assertThat(stats.total()).isEqualTo(5);
+        assertThat(stats.byDepartment()).isEqualTo(Map.of("Roads", 4L, "Water", 1L));
+    }
+
+    private void reconcile(StaffReadRepository.GroupCount... groups) {
+        when(staffReadRepository.countGrouped()).thenReturn(Flux.just(groups));
+        aggregate.reconcile().block();
+    }
+
+    private static StaffReadRepository.GroupCount group(String department, String cityId, String villageId, long count) {
+        return new StaffReadRepository.GroupCount(department, cityId, villageId, count);
+    }
+
+    private static StaffEntity staff(String department, String cityId, String villageId) {
+        return StaffEntity.builder().department(department).cityId(cityId).villageId(villageId).build();
+    }
+}